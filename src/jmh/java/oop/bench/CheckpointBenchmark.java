@@ -0,0 +1,99 @@
+package oop.bench;
+
+import oop.model.RobotWorld;
+import oop.serialization.Checkpoint;
+import oop.serialization.CheckpointWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Контрольные точки мира роботов: снятие состояния в потоке тактов,
+ * запись через отображение в память и восстановление мира из файла.
+ * {@link #tickWithCheckpoints()} тактует мир вместе с {@link CheckpointWriter},
+ * который пробует снять точку на каждом такте; разница с {@link #tick()} —
+ * пауза потока тактов, а запись идет в фоне.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class CheckpointBenchmark {
+    @Param({"10000", "1000000"})
+    private int robots;
+
+    private RobotWorld world;
+    private Checkpoint checkpoint;
+    private File file;
+    private File writerFile;
+    private CheckpointWriter writer;
+    private long tick;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        world = new RobotWorld(robots);
+        for (int i = 0; i < robots; i++) {
+            world.add(random.nextDouble() * 1000, random.nextDouble() * 1000, random.nextDouble() * 2 * Math.PI,
+                    random.nextInt(1000), random.nextInt(1000));
+        }
+        checkpoint = new Checkpoint();
+        checkpoint.capture(world, 0);
+        file = File.createTempFile("robots", ".checkpoint");
+        checkpoint.write(file);
+        writerFile = File.createTempFile("robots", ".checkpoint");
+        writer = new CheckpointWriter(writerFile, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        writer.close();
+        file.delete();
+        writerFile.delete();
+    }
+
+    @Benchmark
+    public Checkpoint capture() {
+        checkpoint.capture(world, 0);
+        return checkpoint;
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        checkpoint.write(file);
+    }
+
+    @Benchmark
+    public RobotWorld tick() {
+        world.tick();
+        return world;
+    }
+
+    @Benchmark
+    public RobotWorld tickWithCheckpoints() {
+        world.tick();
+        writer.onTick(world, ++tick);
+        return world;
+    }
+
+    @Benchmark
+    public RobotWorld restore() throws IOException {
+        return Checkpoint.read(file).toWorld();
+    }
+}
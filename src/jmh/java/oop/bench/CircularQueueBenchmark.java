@@ -0,0 +1,75 @@
+package oop.bench;
+
+import oop.log.CircularQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись и чтение циклической очереди лога, в том числе при конкуренции потоков.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CircularQueueBenchmark {
+    private static final String ENTRY = "entry";
+
+    @Param({"100", "10000"})
+    private int capacity;
+
+    private CircularQueue<String> queue;
+
+    @Setup
+    public void setUp() {
+        queue = new CircularQueue<>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            queue.put(ENTRY);
+        }
+    }
+
+    @Benchmark
+    public void put() {
+        queue.put(ENTRY);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void putContended() {
+        queue.put(ENTRY);
+    }
+
+    @Benchmark
+    public Iterable<String> subList() {
+        return queue.subList(0, queue.size());
+    }
+
+    @Benchmark
+    @Group("writersAndReader")
+    @GroupThreads(3)
+    public void writersAndReaderPut() {
+        queue.put(ENTRY);
+    }
+
+    @Benchmark
+    @Group("writersAndReader")
+    @GroupThreads(1)
+    public Iterable<String> writersAndReaderSubList() {
+        return queue.subList(0, queue.size());
+    }
+}
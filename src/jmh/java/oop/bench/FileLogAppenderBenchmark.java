@@ -0,0 +1,74 @@
+package oop.bench;
+
+import oop.log.FileLogAppender;
+import oop.log.LogLevel;
+import oop.log.LogWindowSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Добавление сообщения в источник лога, который асинхронно пишется в файл.
+ * При {@code DROP} время не зависит от скорости диска, при {@code BLOCK}
+ * в нем видна пропускная способность потока записи.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FileLogAppenderBenchmark {
+    @Param({"DROP", "BLOCK"})
+    private FileLogAppender.OverflowPolicy policy;
+
+    private File directory;
+    private LogWindowSource source;
+    private FileLogAppender appender;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("robots-log").toFile();
+        source = new LogWindowSource(10_000);
+        appender = new FileLogAppender(source, new File(directory, "robots.log"), 64L * 1024 * 1024, 0,
+                5_000, policy);
+    }
+
+    @TearDown
+    public void tearDown() {
+        appender.close();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public void append() {
+        source.append(LogLevel.Debug, "message");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void appendContended() {
+        source.append(LogLevel.Debug, "message");
+    }
+}
@@ -0,0 +1,64 @@
+package oop.bench;
+
+import oop.log.LogChangeListener;
+import oop.log.LogLevel;
+import oop.log.LogWindowSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Добавление сообщения в источник лога с разным числом слушателей.
+ * Слушатели уведомляются отдельным потоком пачками, поэтому время добавления
+ * не должно зависеть от их числа.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class LogWindowSourceBenchmark {
+    @Param({"0", "1", "10"})
+    private int listeners;
+
+    private LogWindowSource source;
+    /**
+     * Источник хранит слушателей по слабым ссылкам, поэтому бенчмарк держит их сам.
+     */
+    private LogChangeListener[] registered;
+    private final LongAdder notifications = new LongAdder();
+
+    @Setup
+    public void setUp() {
+        source = new LogWindowSource(100);
+        registered = new LogChangeListener[listeners];
+        for (int i = 0; i < listeners; i++) {
+            registered[i] = notifications::increment;
+            source.registerListener(registered[i]);
+        }
+    }
+
+    @Benchmark
+    public void append() {
+        source.append(LogLevel.Debug, "message");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void appendContended() {
+        source.append(LogLevel.Debug, "message");
+    }
+}
@@ -0,0 +1,114 @@
+package oop.bench;
+
+import oop.log.LogLevel;
+import oop.log.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.runner.IterationType;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вызовы протокола ниже порога уровня. Строка и шаблон с объектами не выделяют памяти
+ * сами по себе; захватывающий поставщик, упакованный аргумент и массив аргументов убирает
+ * анализ убегания после встраивания вызова, поэтому для них отсутствие выделений зависит
+ * от компилятора. Методы {@code disabled*} проверяют это сами: {@link Allocations} считает
+ * байты, выделенные потоком за каждую итерацию измерения, и завершает прогон ошибкой,
+ * если их больше {@link Allocations#ITERATION_SLACK}, то есть заметно больше нуля на вызов.
+ * Для сравнения {@link #enabledTemplate()} добавляет сообщение при включенном уровне.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class LoggerBenchmark {
+    private LogLevel previous;
+    private Object robot = "robot";
+    private Object target = "target";
+    private long tick = 1_000_000;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        previous = Logger.getLevel();
+        Logger.setLevel(LogLevel.Info);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Logger.setLevel(previous);
+    }
+
+    /**
+     * Байты, выделенные потоком бенчмарка за итерацию.
+     */
+    @State(Scope.Thread)
+    public static class Allocations {
+        /**
+         * Допустимое выделение за итерацию: служебные объекты JMH, но не объекты на каждый вызов,
+         * которых за секундную итерацию набирается сотни мегабайт.
+         */
+        static final long ITERATION_SLACK = 64 * 1024;
+        private final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        private long start;
+
+        @Setup(Level.Iteration)
+        public void start() {
+            start = threads.getCurrentThreadAllocatedBytes();
+        }
+
+        @TearDown(Level.Iteration)
+        public void check(BenchmarkParams benchmark, IterationParams iteration) {
+            long allocated = threads.getCurrentThreadAllocatedBytes() - start;
+            if (iteration.getType() == IterationType.MEASUREMENT && allocated > ITERATION_SLACK) {
+                throw new IllegalStateException(benchmark.getBenchmark() + " выделил " + allocated
+                        + " байт за итерацию при отключенном уровне");
+            }
+        }
+    }
+
+    @Benchmark
+    public void disabledString(Allocations allocations) {
+        Logger.debug("tick");
+    }
+
+    @Benchmark
+    public void disabledSupplier(Allocations allocations) {
+        Logger.debug(() -> "tick " + tick);
+    }
+
+    @Benchmark
+    public void disabledTemplate(Allocations allocations) {
+        Logger.debug("robot {} moves to {}", robot, target);
+    }
+
+    @Benchmark
+    public void disabledBoxed(Allocations allocations) {
+        Logger.debug("tick {}", tick);
+    }
+
+    @Benchmark
+    public void disabledVarargs(Allocations allocations) {
+        Logger.debug("{} {} {} {}", robot, target, robot, target);
+    }
+
+    @Benchmark
+    public void enabledTemplate() {
+        Logger.info("robot {} moves to {}", robot, target);
+    }
+}
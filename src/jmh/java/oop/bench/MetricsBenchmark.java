@@ -0,0 +1,46 @@
+package oop.bench;
+
+import oop.metrics.Histogram;
+import oop.metrics.Metrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость точки замера с выключенными и включенными метриками.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class MetricsBenchmark {
+    @Param({"false", "true"})
+    private boolean enabled;
+
+    private Histogram histogram;
+
+    @Setup
+    public void setUp() {
+        Metrics.getInstance().setEnabled(enabled);
+        histogram = Metrics.getInstance().getTickTime();
+    }
+
+    @Benchmark
+    public long measure() {
+        long start = Metrics.start();
+        histogram.recordSince(start);
+        return start;
+    }
+}
@@ -0,0 +1,88 @@
+package oop.bench;
+
+import oop.model.ObstacleMap;
+import oop.model.PathPlanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Планирование пути на карте 300x300 клеток со случайными препятствиями и стеной:
+ * поиск без кэша, повторный запрос из кэша и изменение клетки с выборочным сбросом кэша.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PathPlannerBenchmark {
+    private static final int ROUTES = 256;
+
+    private ObstacleMap map;
+    private PathPlanner uncached;
+    private PathPlanner cached;
+    private int[] routes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        map = new ObstacleMap(10, 300, 300);
+        for (int i = 0; i < 15000; i++) {
+            map.setBlocked(random.nextInt(300), random.nextInt(300), true);
+        }
+        for (int y = 0; y < 280; y++) {
+            map.setBlocked(150, y, true);
+        }
+        uncached = new PathPlanner(map, 0);
+        cached = new PathPlanner(map);
+        routes = new int[ROUTES * 4];
+        for (int i = 0; i < routes.length; i += 2) {
+            int cellX;
+            int cellY;
+            do {
+                cellX = random.nextInt(300);
+                cellY = random.nextInt(300);
+            } while (map.isBlocked(cellX, cellY));
+            routes[i] = cellX * 10 + 5;
+            routes[i + 1] = cellY * 10 + 5;
+        }
+        for (int i = 0; i < routes.length; i += 4) {
+            cached.plan(routes[i], routes[i + 1], routes[i + 2], routes[i + 3]);
+        }
+    }
+
+    private int nextRoute() {
+        next = (next + 4) % routes.length;
+        return next;
+    }
+
+    @Benchmark
+    public int[] planUncached() {
+        int i = nextRoute();
+        return uncached.plan(routes[i], routes[i + 1], routes[i + 2], routes[i + 3]);
+    }
+
+    @Benchmark
+    public int[] planCached() {
+        int i = nextRoute();
+        return cached.plan(routes[i], routes[i + 1], routes[i + 2], routes[i + 3]);
+    }
+
+    @Benchmark
+    public int toggleObstacle() {
+        map.setBlocked(10, 10, !map.isBlocked(10, 10));
+        return cached.getCacheSize();
+    }
+}
@@ -0,0 +1,129 @@
+package oop.bench;
+
+import oop.model.Robot;
+import oop.model.RobotBehavior;
+import oop.model.RobotPose;
+import oop.model.RobotWorld;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость согласованных снимков положения под записью.
+ * <p>
+ * Писатель без пауз ставит цель вида (n, n) и выполняет такт, читатели снимают положение.
+ * Счетчик {@code torn} — снимки с разными координатами цели — выводится рядом с результатом
+ * только для наглядности; проверку всех полей снимка, завершающуюся ошибкой при разорванном
+ * чтении, выполняет {@link PoseSnapshotCheck}. Группы {@code getters} читают те же поля
+ * отдельными геттерами для сравнения.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Group)
+public class PoseSnapshotBenchmark {
+    private Robot robot;
+    private RobotWorld world;
+    private RobotBehavior slot;
+    private int target;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        robot = new Robot();
+        world = new RobotWorld();
+        world.add();
+        slot = world.slot(0);
+    }
+
+    /**
+     * Счетчики чтений одного потока-читателя.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Reads {
+        public long reads;
+        public long torn;
+        private final RobotPose pose = new RobotPose();
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            reads = 0;
+            torn = 0;
+        }
+
+        void check(int targetX, int targetY) {
+            reads++;
+            if (targetX != targetY) {
+                torn++;
+            }
+        }
+    }
+
+    private int nextTarget() {
+        target = (target + 1) & 0xFFFF;
+        return target;
+    }
+
+    @Benchmark
+    @Group("robot")
+    @GroupThreads(1)
+    public void robotWriter() {
+        int value = nextTarget();
+        robot.setTargetPosition(value, value);
+        robot.onModelUpdateEvent();
+    }
+
+    @Benchmark
+    @Group("robot")
+    @GroupThreads(3)
+    public void robotReader(Reads reads) {
+        robot.readPose(reads.pose);
+        reads.check(reads.pose.getTargetPositionX(), reads.pose.getTargetPositionY());
+    }
+
+    @Benchmark
+    @Group("robotGetters")
+    @GroupThreads(1)
+    public void robotGettersWriter() {
+        robotWriter();
+    }
+
+    @Benchmark
+    @Group("robotGetters")
+    @GroupThreads(3)
+    public void robotGettersReader(Reads reads) {
+        reads.check(robot.getM_targetPositionX(), robot.getM_targetPositionY());
+    }
+
+    @Benchmark
+    @Group("world")
+    @GroupThreads(1)
+    public void worldWriter() {
+        int value = nextTarget();
+        world.setTargetPosition(0, value, value);
+        world.tick();
+    }
+
+    @Benchmark
+    @Group("world")
+    @GroupThreads(3)
+    public void worldReader(Reads reads) {
+        slot.readPose(reads.pose);
+        reads.check(reads.pose.getTargetPositionX(), reads.pose.getTargetPositionY());
+    }
+}
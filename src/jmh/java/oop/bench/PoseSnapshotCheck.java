@@ -0,0 +1,147 @@
+package oop.bench;
+
+import oop.model.Robot;
+import oop.model.RobotBehavior;
+import oop.model.RobotPose;
+import oop.model.RobotWorld;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Проверка согласованных снимков положения, завершающаяся с ненулевым кодом при разорванном чтении.
+ * <p>
+ * Писатель ведет робота по заранее известному сценарию: каждые {@link #TICKS_PER_TARGET} тактов
+ * ставит новую случайную цель и выполняет такты. Тот же сценарий заранее прогоняется в одном
+ * потоке, и все положения, через которые проходит робот, запоминаются. Читатели непрерывно
+ * снимают положение через {@link RobotBehavior#readPose(RobotPose)}; снимок, которого нет среди
+ * запомненных (по всем пяти полям — координатам, направлению и цели), собран из разных записей
+ * и считается разорванным.
+ * <pre>
+ * java -cp target/benchmarks.jar oop.bench.PoseSnapshotCheck [секунд на модель]
+ * </pre>
+ */
+public class PoseSnapshotCheck {
+    private static final int TICKS = 100_000;
+    private static final int TICKS_PER_TARGET = 50;
+    private static final int READERS = 3;
+
+    private record Pose(long x, long y, long direction, int targetX, int targetY) {
+        static Pose of(RobotPose pose) {
+            return new Pose(Double.doubleToLongBits(pose.getRobotPositionX()),
+                    Double.doubleToLongBits(pose.getRobotPositionY()),
+                    Double.doubleToLongBits(pose.getRobotDirection()),
+                    pose.getTargetPositionX(), pose.getTargetPositionY());
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 5;
+        long torn = check("robot", Robot::new, seconds) + check("world", PoseSnapshotCheck::worldSlot, seconds);
+        if (torn != 0) {
+            System.err.println("Разорванных снимков: " + torn);
+            System.exit(1);
+        }
+    }
+
+    private static RobotBehavior worldSlot() {
+        RobotWorld world = new RobotWorld();
+        world.add();
+        return world.slot(0);
+    }
+
+    /**
+     * Прогоняет сценарий на свежих роботах, пока не истечет время, и считает разорванные снимки.
+     */
+    private static long check(String name, Supplier<RobotBehavior> factory, long seconds)
+            throws InterruptedException {
+        int[] targets = targets();
+        Set<Pose> reachable = reachable(factory.get(), targets);
+        long reads = 0;
+        long torn = 0;
+        long rounds = 0;
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            RobotBehavior robot = factory.get();
+            AtomicBoolean done = new AtomicBoolean();
+            AtomicLong roundReads = new AtomicLong();
+            AtomicLong roundTorn = new AtomicLong();
+            Thread[] readers = new Thread[READERS];
+            for (int i = 0; i < READERS; i++) {
+                readers[i] = new Thread(() -> {
+                    RobotPose pose = new RobotPose();
+                    long localReads = 0;
+                    long localTorn = 0;
+                    while (!done.get()) {
+                        robot.readPose(pose);
+                        localReads++;
+                        if (!reachable.contains(Pose.of(pose))) {
+                            localTorn++;
+                        }
+                    }
+                    roundReads.addAndGet(localReads);
+                    roundTorn.addAndGet(localTorn);
+                }, "pose reader " + i);
+                readers[i].start();
+            }
+            run(robot, targets);
+            done.set(true);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            reads += roundReads.get();
+            torn += roundTorn.get();
+            rounds++;
+        }
+        System.out.printf("%s: rounds=%d reads=%d torn=%d%n", name, rounds, reads, torn);
+        return torn;
+    }
+
+    private static int[] targets() {
+        Random random = new Random(1);
+        int[] targets = new int[2 * (TICKS / TICKS_PER_TARGET)];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = random.nextInt(1000);
+        }
+        return targets;
+    }
+
+    /**
+     * Выполняет сценарий: новая цель каждые {@link #TICKS_PER_TARGET} тактов.
+     */
+    private static void run(RobotBehavior robot, int[] targets) {
+        for (int tick = 0; tick < TICKS; tick++) {
+            if (tick % TICKS_PER_TARGET == 0) {
+                int command = tick / TICKS_PER_TARGET;
+                robot.setTargetPosition(targets[2 * command], targets[2 * command + 1]);
+            }
+            robot.onModelUpdateEvent();
+        }
+    }
+
+    /**
+     * Прогоняет сценарий в одном потоке и возвращает все положения, через которые прошел робот.
+     */
+    private static Set<Pose> reachable(RobotBehavior robot, int[] targets) {
+        Set<Pose> reachable = new HashSet<>();
+        RobotPose pose = new RobotPose();
+        robot.readPose(pose);
+        reachable.add(Pose.of(pose));
+        for (int tick = 0; tick < TICKS; tick++) {
+            if (tick % TICKS_PER_TARGET == 0) {
+                int command = tick / TICKS_PER_TARGET;
+                robot.setTargetPosition(targets[2 * command], targets[2 * command + 1]);
+                robot.readPose(pose);
+                reachable.add(Pose.of(pose));
+            }
+            robot.onModelUpdateEvent();
+            robot.readPose(pose);
+            reachable.add(Pose.of(pose));
+        }
+        return reachable;
+    }
+}
@@ -0,0 +1,79 @@
+package oop.bench;
+
+import oop.log.RingBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись и чтение кольцевого буфера лога без блокировок. Методы повторяют
+ * {@link CircularQueueBenchmark}, чтобы результаты можно было сравнить построчно.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RingBufferBenchmark {
+    private static final String ENTRY = "entry";
+
+    @Param({"100", "10000"})
+    private int capacity;
+
+    private RingBuffer<String> buffer;
+
+    @Setup
+    public void setUp() {
+        buffer = new RingBuffer<>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            buffer.put(ENTRY);
+        }
+    }
+
+    @Benchmark
+    public long put() {
+        return buffer.put(ENTRY);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long putContended() {
+        return buffer.put(ENTRY);
+    }
+
+    @Benchmark
+    public List<String> snapshot() {
+        long next = buffer.getNextSequence();
+        return buffer.snapshot(next - capacity, next);
+    }
+
+    @Benchmark
+    @Group("writersAndReader")
+    @GroupThreads(3)
+    public long writersAndReaderPut() {
+        return buffer.put(ENTRY);
+    }
+
+    @Benchmark
+    @Group("writersAndReader")
+    @GroupThreads(1)
+    public List<String> writersAndReaderSnapshot() {
+        long next = buffer.getNextSequence();
+        return buffer.snapshot(next - capacity, next);
+    }
+}
@@ -0,0 +1,67 @@
+package oop.bench;
+
+import oop.model.Kinematics;
+import oop.model.Robot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Такт модели робота и вспомогательная геометрия.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class RobotBenchmark {
+    private Robot robot;
+    private double angle;
+    private double targetX;
+    private double targetY;
+
+    /**
+     * Цель выбирается далеко, чтобы робот не доехал до нее за итерацию
+     * и каждый такт выполнял полный расчет движения.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        robot = new Robot();
+        robot.setTargetPosition(1_000_000, 700_000);
+        angle = -12.5;
+        targetX = 110;
+        targetY = 120;
+    }
+
+    @Benchmark
+    public Robot onModelUpdateEvent() {
+        robot.onModelUpdateEvent();
+        return robot;
+    }
+
+    @Benchmark
+    public boolean unachievable() {
+        targetX += 0.25;
+        return robot.unachievable(targetX, targetY);
+    }
+
+    @Benchmark
+    public double asNormalizedRadians() {
+        angle += 0.7;
+        if (angle > 20) {
+            angle = -20;
+        }
+        return Kinematics.asNormalizedRadians(angle);
+    }
+}
@@ -0,0 +1,94 @@
+package oop.bench;
+
+import oop.model.RobotWorld;
+import oop.model.SpatialGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пространственный индекс: такт мира с обновлением индекса, поиск пар-кандидатов
+ * на столкновение в сравнении с перебором всех пар и поиск ближайших соседей.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SpatialGridBenchmark {
+    private static final double COLLISION_DISTANCE = 8;
+
+    @Param({"1000", "10000"})
+    private int robots;
+
+    private RobotWorld world;
+    private SpatialGrid grid;
+    private double[] positionX;
+    private double[] positionY;
+    private final int[] neighbours = new int[8];
+    private int pairs;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        double side = Math.sqrt(robots) * 20;
+        world = new RobotWorld(robots);
+        for (int i = 0; i < robots; i++) {
+            world.add(random.nextDouble() * side, random.nextDouble() * side, random.nextDouble() * 2 * Math.PI,
+                    random.nextInt((int) side), random.nextInt((int) side));
+        }
+        grid = new SpatialGrid(COLLISION_DISTANCE);
+        world.setSpatialGrid(grid);
+        positionX = new double[robots];
+        positionY = new double[robots];
+        for (int i = 0; i < robots; i++) {
+            positionX[i] = world.getRobotPositionX(i);
+            positionY[i] = world.getRobotPositionY(i);
+        }
+    }
+
+    @Benchmark
+    public void tickWithGrid() {
+        world.tick();
+    }
+
+    @Benchmark
+    public int gridPairs() {
+        pairs = 0;
+        grid.forEachPair(COLLISION_DISTANCE, (first, second) -> pairs++);
+        return pairs;
+    }
+
+    @Benchmark
+    public int allPairs() {
+        int count = 0;
+        double limit = COLLISION_DISTANCE * COLLISION_DISTANCE;
+        for (int i = 0; i < robots; i++) {
+            for (int j = i + 1; j < robots; j++) {
+                double diffX = positionX[i] - positionX[j];
+                double diffY = positionY[i] - positionY[j];
+                if (diffX * diffX + diffY * diffY < limit) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int nearest() {
+        return grid.nearest(positionX[0], positionY[0], neighbours.length, neighbours);
+    }
+}
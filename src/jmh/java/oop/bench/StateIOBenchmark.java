@@ -0,0 +1,91 @@
+package oop.bench;
+
+import oop.serialization.StateIO;
+import oop.serialization.Storable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сохранение и загрузка состояния окон через временный файл конфигурации.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class StateIOBenchmark {
+    @Param({"4", "64"})
+    private int windows;
+
+    private File confPath;
+    private StateIO stateIO;
+    private List<Storable> storables;
+
+    /**
+     * Окно без Swing, сохраняющее границы в том же формате, что и {@code StateSaverManager}.
+     */
+    private static class BoundsStorable implements Storable {
+        private final String name;
+        private String bounds = "10,20,300,400";
+
+        BoundsStorable(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void save(Map<String, String> states) {
+            states.put(name + "_bounds", bounds);
+            states.put(name + "_isIcon", "false");
+        }
+
+        @Override
+        public void restore(Map<String, String> states) {
+            bounds = states.get(name + "_bounds");
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        confPath = File.createTempFile("States", ".conf");
+        stateIO = new StateIO(confPath);
+        storables = new ArrayList<>(windows);
+        for (int i = 0; i < windows; i++) {
+            storables.add(new BoundsStorable("Window" + i));
+        }
+        stateIO.saveStates(storables);
+    }
+
+    @TearDown
+    public void tearDown() {
+        confPath.delete();
+    }
+
+    @Benchmark
+    public void saveStates() {
+        stateIO.saveStates(storables);
+    }
+
+    @Benchmark
+    public List<Storable> loadStates() {
+        stateIO.loadStates(storables);
+        return storables;
+    }
+}
@@ -0,0 +1,85 @@
+package oop.bench;
+
+import oop.model.DubinsSteering;
+import oop.model.GreedySteering;
+import oop.model.Robot;
+import oop.model.RobotPose;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение стратегий управления: один вызов — поездка из начального положения
+ * {@link Robot} к случайной цели в квадрате 300x300 вокруг него.
+ * Счетчики выводятся рядом с результатом: {@code arrivedTicks / arrivals} — среднее
+ * число тактов по поездкам, закончившимся прибытием, а {@code nonArrivals} — число
+ * поездок, не закончившихся за {@link #MAX_TICKS} тактов; их такты в среднее не входят.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SteeringBenchmark {
+    private static final long MAX_TICKS = 100_000;
+
+    @Param({"greedy", "dubins"})
+    private String steering;
+
+    private final Random random = new Random(42);
+    private final RobotPose pose = new RobotPose();
+
+    /**
+     * Счетчики тактов прибывших поездок, прибытий и неприбытий.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Trips {
+        public long arrivedTicks;
+        public long arrivals;
+        public long nonArrivals;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            arrivedTicks = 0;
+            arrivals = 0;
+            nonArrivals = 0;
+        }
+    }
+
+    @Benchmark
+    public long trip(Trips trips) {
+        Robot robot = new Robot();
+        robot.setSteeringStrategy("dubins".equals(steering) ? new DubinsSteering() : new GreedySteering());
+        int targetX = 100 + random.nextInt(301) - 150;
+        int targetY = 100 + random.nextInt(301) - 150;
+        robot.setTargetPosition(targetX, targetY);
+        long ticks = 0;
+        while (ticks < MAX_TICKS) {
+            robot.readPose(pose);
+            if (Math.hypot(pose.getRobotPositionX() - targetX, pose.getRobotPositionY() - targetY) < 0.5) {
+                trips.arrivals++;
+                trips.arrivedTicks += ticks;
+                return ticks;
+            }
+            robot.onModelUpdateEvent();
+            ticks++;
+        }
+        trips.nonArrivals++;
+        return ticks;
+    }
+}
@@ -0,0 +1,85 @@
+package oop.bench;
+
+import oop.gui.RobotSpriteCache;
+import oop.gui.WorldRasterRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кадр роя: отрисовка в массив пикселей полосами в сравнении с вызовом
+ * {@code drawImage} на каждого робота.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class WorldRasterRendererBenchmark {
+    private static final int WIDTH = 1600;
+    private static final int HEIGHT = 1000;
+    private static final RobotSpriteCache.Style STYLE =
+            new RobotSpriteCache.Style(30, 10, Color.MAGENTA, Color.BLACK, Color.WHITE);
+
+    @Param({"10000", "100000"})
+    private int robots;
+
+    @Param({"0.25", "1"})
+    private double zoom;
+
+    private double[] positionX;
+    private double[] positionY;
+    private double[] direction;
+    private WorldRasterRenderer renderer;
+    private BufferedImage image;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        double side = Math.sqrt(robots) * 12;
+        positionX = new double[robots];
+        positionY = new double[robots];
+        direction = new double[robots];
+        for (int i = 0; i < robots; i++) {
+            positionX[i] = random.nextDouble() * side;
+            positionY[i] = random.nextDouble() * side;
+            direction[i] = random.nextDouble() * 2 * Math.PI;
+        }
+        renderer = new WorldRasterRenderer(STYLE, Color.LIGHT_GRAY);
+        image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Benchmark
+    public BufferedImage raster() {
+        return renderer.render(positionX, positionY, direction, robots, WIDTH, HEIGHT, zoom, 0, 0);
+    }
+
+    @Benchmark
+    public BufferedImage drawImagePerRobot() {
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.LIGHT_GRAY);
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        g.scale(zoom, zoom);
+        for (int i = 0; i < robots; i++) {
+            RobotSpriteCache.getInstance().draw(g, STYLE, (int) (positionX[i] + 0.5), (int) (positionY[i] + 0.5),
+                    direction[i]);
+        }
+        g.dispose();
+        return image;
+    }
+}
@@ -1,17 +1,47 @@
 package oop.controller;
 
+import oop.log.Logger;
+import oop.metrics.Metrics;
+import oop.model.PathPlanner;
 import oop.model.RobotBehavior;
+import oop.model.RobotPose;
+import oop.serialization.ReplayRecorder;
 
 import java.awt.*;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Контроллер игры.
+ * <p>
+ * Если контроллеру передан {@link PathPlanner}, новая цель превращается в маршрут
+ * в обход препятствий: робот получает точки маршрута по очереди, а следующая точка
+ * выдается, когда робот подъезжает к текущей ближе размера клетки карты.
+ * <p>
+ * Новые цели применяются в потоке тактов перед очередным тактом модели, а контроллер
+ * считает такты. Поэтому сеанс можно записать ({@link #startRecording(File)}):
+ * каждая цель, выданная роботу, сохраняется вместе с номером такта, и запись
+ * воспроизводится без интерфейса с тем же результатом.
+ * <p>
+ * Модель можно обновлять реже тактов планировщика ({@link #setTicksPerUpdate(int)}):
+ * тогда накопленные такты выполняются раз в несколько тактов одной пачкой с одним
+ * уведомлением слушателей. Скорость симуляции и запись сеанса от этого не меняются.
  */
 public class GameController {
     private final RobotBehavior m_robot;
-    private final Timer m_timer = new Timer("events generator", true);
+    private final TickScheduler m_scheduler;
+    private final PathPlanner m_planner;
+    private final Tickable m_tickable = this::UpdateEvent;
+    private final RobotPose m_pose = new RobotPose();
+    private final AtomicReference<Route> m_pendingRoute = new AtomicReference<>();
+    private volatile Route m_route;
+    private long m_tick;
+    private volatile int m_ticksPerUpdate = 1;
+    private int m_pendingTicks;
+    private ReplayRecorder m_recorder;
+    private long m_recordingStart;
 
     /**
      * Конструктор контроллера игры.
@@ -19,28 +49,214 @@ public class GameController {
      * @param robot Робот, которым управляет контроллер.
      */
     public GameController(RobotBehavior robot) {
+        this(robot, TickScheduler.getInstance());
+    }
+
+    /**
+     * Конструктор контроллера игры с заданным планировщиком тактов.
+     *
+     * @param robot     Робот, которым управляет контроллер.
+     * @param scheduler Планировщик, выдающий такты модели.
+     */
+    public GameController(RobotBehavior robot, TickScheduler scheduler) {
+        this(robot, scheduler, null);
+    }
+
+    /**
+     * Конструктор контроллера игры, прокладывающего маршруты в обход препятствий.
+     *
+     * @param robot     Робот, которым управляет контроллер.
+     * @param scheduler Планировщик, выдающий такты модели.
+     * @param planner   Планировщик путей или {@code null}, чтобы ехать к цели напрямую.
+     */
+    public GameController(RobotBehavior robot, TickScheduler scheduler, PathPlanner planner) {
         m_robot = robot;
-        m_timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                UpdateEvent();
-            }
-        }, 0, 10);
+        m_scheduler = scheduler;
+        m_planner = planner;
+        m_scheduler.register(m_tickable);
     }
 
     /**
      * Обрабатывает событие обновления модели.
      */
-    protected void UpdateEvent() {
-        m_robot.onModelUpdateEvent();
+    protected synchronized void UpdateEvent() {
+        if (++m_pendingTicks < m_ticksPerUpdate) {
+            return;
+        }
+        int ticks = m_pendingTicks;
+        m_pendingTicks = 0;
+        long start = Metrics.start();
+        Route pending = m_pendingRoute.getAndSet(null);
+        if (pending != null) {
+            m_route = pending;
+            applyTarget(pending.m_points[0], pending.m_points[1]);
+        } else {
+            advanceRoute();
+        }
+        if (ticks == 1) {
+            m_robot.onModelUpdateEvent();
+        } else {
+            m_robot.fastForward(ticks, Double.POSITIVE_INFINITY);
+        }
+        m_tick += ticks;
+        Metrics.getInstance().getTickTime().recordSince(start);
+    }
+
+    private void advanceRoute() {
+        Route route = m_route;
+        if (route == null || route.m_next >= route.m_points.length - 2) {
+            return;
+        }
+        m_robot.readPose(m_pose);
+        double diffX = route.m_points[route.m_next] - m_pose.getRobotPositionX();
+        double diffY = route.m_points[route.m_next + 1] - m_pose.getRobotPositionY();
+        double radius = m_planner.getMap().getCellSize();
+        if (diffX * diffX + diffY * diffY < radius * radius) {
+            route.m_next += 2;
+            applyTarget(route.m_points[route.m_next], route.m_points[route.m_next + 1]);
+        }
+    }
+
+    private void applyTarget(int x, int y) {
+        m_robot.setTargetPosition(x, y);
+        if (m_recorder != null) {
+            try {
+                m_recorder.record(m_tick - m_recordingStart, x, y);
+            } catch (IOException e) {
+                Logger.error("Запись сеанса остановлена: {}", e.getMessage());
+                closeRecorder();
+            }
+        }
     }
 
     /**
-     * Устанавливает целевую позицию робота.
+     * Устанавливает целевую позицию робота; цель применяется перед следующим тактом.
+     * Если цель недостижима из-за препятствий, текущая цель не меняется.
      *
      * @param point Целевая позиция.
      */
     public void setTargetPositionRobot(Point point) {
-        m_robot.setTargetPosition(point.x, point.y);
+        int[] points;
+        if (m_planner == null) {
+            points = new int[]{point.x, point.y};
+        } else {
+            RobotPose pose = new RobotPose();
+            m_robot.readPose(pose);
+            points = m_planner.plan(pose.getRobotPositionX(), pose.getRobotPositionY(), point.x, point.y);
+            if (points == null) {
+                return;
+            }
+        }
+        m_pendingRoute.set(new Route(points));
+    }
+
+    /**
+     * Задает, раз в сколько тактов планировщика обновляется модель.
+     *
+     * @param ticksPerUpdate Число тактов на одно обновление, не меньше единицы.
+     */
+    public void setTicksPerUpdate(int ticksPerUpdate) {
+        if (ticksPerUpdate < 1) {
+            throw new IllegalArgumentException("ticksPerUpdate must be positive: " + ticksPerUpdate);
+        }
+        m_ticksPerUpdate = ticksPerUpdate;
+    }
+
+    /**
+     * Возвращает, раз в сколько тактов планировщика обновляется модель.
+     *
+     * @return Число тактов на одно обновление.
+     */
+    public int getTicksPerUpdate() {
+        return m_ticksPerUpdate;
+    }
+
+    /**
+     * Возвращает ожидаемый интервал между обновлениями модели с учетом скорости симуляции.
+     *
+     * @return Интервал в наносекундах.
+     */
+    public long getUpdateIntervalNanos() {
+        return (long) (m_ticksPerUpdate * m_scheduler.getStepNanos() / m_scheduler.getTimeScale());
+    }
+
+    /**
+     * Возвращает еще не пройденные точки маршрута, включая текущую цель.
+     *
+     * @return Точки маршрута подряд (x0, y0, x1, y1, ...); пустой массив, если маршрута нет.
+     */
+    public int[] getRemainingRoute() {
+        Route route = m_route;
+        if (route == null) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(route.m_points, route.m_next, route.m_points.length);
+    }
+
+    /**
+     * Начинает запись сеанса в файл. Предыдущая запись, если она велась, завершается.
+     *
+     * @param file Файл записи.
+     * @throws IOException Если файл не удалось создать.
+     */
+    public synchronized void startRecording(File file) throws IOException {
+        stopRecording();
+        m_robot.readPose(m_pose);
+        m_recorder = new ReplayRecorder(file, m_pose);
+        m_recordingStart = m_tick;
+    }
+
+    /**
+     * Завершает запись сеанса, сохраняя число тактов и конечное положение робота.
+     */
+    public synchronized void stopRecording() {
+        if (m_recorder == null) {
+            return;
+        }
+        m_robot.readPose(m_pose);
+        try {
+            m_recorder.finish(m_tick - m_recordingStart, m_pose);
+        } catch (IOException e) {
+            Logger.error("Не удалось завершить запись сеанса: {}", e.getMessage());
+        }
+        m_recorder = null;
+    }
+
+    private void closeRecorder() {
+        try {
+            m_recorder.close();
+        } catch (IOException ignored) {
+            // Запись уже остановлена из-за ошибки ввода-вывода.
+        }
+        m_recorder = null;
+    }
+
+    /**
+     * Возвращает число тактов, выполненных контроллером.
+     *
+     * @return Число тактов.
+     */
+    public synchronized long getTick() {
+        return m_tick;
+    }
+
+    /**
+     * Останавливает выдачу тактов модели и завершает запись сеанса.
+     */
+    public void stop() {
+        m_scheduler.unregister(m_tickable);
+        stopRecording();
+    }
+
+    /**
+     * Маршрут и индекс текущей точки; индекс меняется только в потоке тактов.
+     */
+    private static final class Route {
+        private final int[] m_points;
+        private volatile int m_next;
+
+        Route(int[] points) {
+            m_points = points;
+        }
     }
 }
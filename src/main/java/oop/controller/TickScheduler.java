@@ -0,0 +1,257 @@
+package oop.controller;
+
+import oop.log.Logger;
+import oop.metrics.Metrics;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Планировщик тактов модели с фиксированным шагом.
+ * <p>
+ * Один поток обслуживает все зарегистрированные {@link Tickable}. Моменты тактов
+ * отсчитываются по {@link System#nanoTime()} от общего расписания, а не от
+ * фактического пробуждения, поэтому опоздания не накапливаются. Если поток отстал,
+ * пропущенные такты догоняются подряд, но не больше заданного числа за одно
+ * пробуждение; остальное отбрасывается и учитывается как перегрузка.
+ * <p>
+ * Скорость симуляции задается множителем времени ({@link #setTimeScale(double)}):
+ * шаг модели не меняется, меняется частота тактов. На ускорении такты выполняются
+ * пачками (подшагами) примерно раз в миллисекунду, чтобы не просыпаться на каждый такт;
+ * работа за одно пробуждение ограничена и числом тактов, и временем, равным длительности
+ * такта. Если планировщик не успевает за заданной скоростью, отставание отбрасывается,
+ * раз в секунду пишется сообщение в лог, а фактическая скорость доступна через
+ * {@link #getAchievedTimeScale()}.
+ * <p>
+ * Опоздание записывается в {@link Metrics#getTickLateness()} один раз за пробуждение —
+ * относительно момента, на который оно планировалось, — а не для каждого такта пачки,
+ * иначе гистограмма показывала бы ширину окна пачки, а не задержку пробуждения.
+ */
+public class TickScheduler {
+    /**
+     * Длительность такта по умолчанию, совпадающая с шагом интегрирования модели (10 мс).
+     */
+    public static final long DEFAULT_STEP_NANOS = 10_000_000L;
+    private static final int DEFAULT_MAX_SUBSTEPS = 5;
+    private static final long OVERRUN_REPORT_INTERVAL_NANOS = 1_000_000_000L;
+    private static final long MIN_WAKE_NANOS = 1_000_000L;
+    private static final long ACHIEVED_WINDOW_NANOS = 1_000_000_000L;
+    /**
+     * Минимальный множитель скорости симуляции.
+     */
+    public static final double MIN_TIME_SCALE = 0.1;
+    /**
+     * Максимальный множитель скорости симуляции.
+     */
+    public static final double MAX_TIME_SCALE = 100;
+
+    private final long m_stepNanos;
+    private final int m_maxSubsteps;
+    private final CopyOnWriteArrayList<Tickable> m_tickables = new CopyOnWriteArrayList<>();
+    private final AtomicLong m_ticks = new AtomicLong();
+    private final AtomicLong m_overruns = new AtomicLong();
+    private final AtomicLong m_droppedTicks = new AtomicLong();
+    private final Thread m_thread;
+    private volatile double m_timeScale = 1;
+    private volatile double m_achievedTimeScale = 1;
+    private long m_lastOverrunReport;
+
+    /**
+     * Конструктор планировщика.
+     *
+     * @param name        Имя потока планировщика.
+     * @param stepNanos   Длительность такта в наносекундах.
+     * @param maxSubsteps Максимальное число тактов, выполняемых за одно пробуждение.
+     */
+    public TickScheduler(String name, long stepNanos, int maxSubsteps) {
+        if (stepNanos <= 0 || maxSubsteps < 1) {
+            throw new IllegalArgumentException("Step and substep limit must be positive");
+        }
+        m_stepNanos = stepNanos;
+        m_maxSubsteps = maxSubsteps;
+        m_lastOverrunReport = System.nanoTime() - OVERRUN_REPORT_INTERVAL_NANOS;
+        m_thread = new Thread(this::run, name);
+        m_thread.setDaemon(true);
+        m_thread.start();
+    }
+
+    /**
+     * Получение общего планировщика приложения.
+     *
+     * @return Экземпляр класса TickScheduler.
+     */
+    public static TickScheduler getInstance() {
+        return TickSchedulerHolder.INSTANCE;
+    }
+
+    /**
+     * Регистрирует получателя тактов.
+     *
+     * @param tickable Получатель тактов.
+     */
+    public void register(Tickable tickable) {
+        m_tickables.add(tickable);
+        LockSupport.unpark(m_thread);
+    }
+
+    /**
+     * Отменяет регистрацию получателя тактов.
+     *
+     * @param tickable Получатель тактов.
+     */
+    public void unregister(Tickable tickable) {
+        m_tickables.remove(tickable);
+    }
+
+    /**
+     * Устанавливает множитель скорости симуляции. Метод не блокирует вызывающий поток
+     * и может вызываться из потока обработки событий.
+     *
+     * @param timeScale Множитель от {@value #MIN_TIME_SCALE} до {@value #MAX_TIME_SCALE}.
+     */
+    public void setTimeScale(double timeScale) {
+        if (!(timeScale >= MIN_TIME_SCALE && timeScale <= MAX_TIME_SCALE)) {
+            throw new IllegalArgumentException("Time scale must be between " + MIN_TIME_SCALE
+                    + " and " + MAX_TIME_SCALE + ": " + timeScale);
+        }
+        m_timeScale = timeScale;
+        LockSupport.unpark(m_thread);
+    }
+
+    /**
+     * Возвращает заданный множитель скорости симуляции.
+     *
+     * @return Множитель скорости.
+     */
+    public double getTimeScale() {
+        return m_timeScale;
+    }
+
+    /**
+     * Возвращает фактический множитель скорости за последнюю секунду работы:
+     * меньше заданного, если планировщик не успевает.
+     *
+     * @return Фактический множитель скорости.
+     */
+    public double getAchievedTimeScale() {
+        return m_achievedTimeScale;
+    }
+
+    /**
+     * Возвращает длительность такта при единичной скорости.
+     *
+     * @return Длительность такта в наносекундах.
+     */
+    public long getStepNanos() {
+        return m_stepNanos;
+    }
+
+    /**
+     * Возвращает число выполненных тактов.
+     *
+     * @return Число тактов.
+     */
+    public long getTicks() {
+        return m_ticks.get();
+    }
+
+    /**
+     * Возвращает число пробуждений, на которых планировщик не успел догнать расписание.
+     *
+     * @return Число перегрузок.
+     */
+    public long getOverruns() {
+        return m_overruns.get();
+    }
+
+    /**
+     * Возвращает число тактов, отброшенных из-за перегрузок.
+     *
+     * @return Число отброшенных тактов.
+     */
+    public long getDroppedTicks() {
+        return m_droppedTicks.get();
+    }
+
+    private void run() {
+        long nextTick = System.nanoTime();
+        long windowStart = nextTick;
+        long windowTicks = 0;
+        double timeScale = m_timeScale;
+        Metrics metrics = Metrics.getInstance();
+        while (true) {
+            if (m_tickables.isEmpty()) {
+                LockSupport.park(this);
+                nextTick = System.nanoTime();
+                windowStart = nextTick;
+                windowTicks = 0;
+                continue;
+            }
+            if (m_timeScale != timeScale) {
+                timeScale = m_timeScale;
+                nextTick = System.nanoTime();
+            }
+            long interval = Math.max(1, Math.round(m_stepNanos / timeScale));
+            long ticksPerWake = Math.max(1, (MIN_WAKE_NANOS + interval - 1) / interval);
+            long now = System.nanoTime();
+            long wakeAt = nextTick + (ticksPerWake - 1) * interval;
+            if (now - wakeAt < 0) {
+                LockSupport.parkNanos(this, wakeAt - now);
+                continue;
+            }
+            if (metrics.isEnabled()) {
+                metrics.getTickLateness().record(now - wakeAt);
+            }
+            long batchStart = now;
+            long maxSubsteps = m_maxSubsteps * ticksPerWake;
+            int substeps = 0;
+            while (now - nextTick >= 0 && substeps < maxSubsteps && now - batchStart < m_stepNanos) {
+                tickAll();
+                nextTick += interval;
+                substeps++;
+                now = System.nanoTime();
+            }
+            if (now - nextTick >= 0) {
+                long dropped = (now - nextTick) / interval + 1;
+                nextTick += dropped * interval;
+                reportOverrun(now, dropped);
+            }
+            windowTicks += substeps;
+            if (now - windowStart >= ACHIEVED_WINDOW_NANOS) {
+                m_achievedTimeScale = (double) windowTicks * m_stepNanos / (now - windowStart);
+                windowStart = now;
+                windowTicks = 0;
+            }
+        }
+    }
+
+    private void tickAll() {
+        for (Tickable tickable : m_tickables) {
+            try {
+                tickable.onTick();
+            } catch (RuntimeException e) {
+                Logger.error("Ошибка при выполнении такта: {}", e);
+            }
+        }
+        m_ticks.incrementAndGet();
+    }
+
+    private void reportOverrun(long now, long dropped) {
+        long overruns = m_overruns.incrementAndGet();
+        long droppedTicks = m_droppedTicks.addAndGet(dropped);
+        if (now - m_lastOverrunReport >= OVERRUN_REPORT_INTERVAL_NANOS) {
+            m_lastOverrunReport = now;
+            double timeScale = m_timeScale;
+            double achievedTimeScale = m_achievedTimeScale;
+            Logger.debug(() -> "Планировщик не успевает за скоростью " + timeScale + "x (фактически "
+                    + String.format("%.2f", achievedTimeScale) + "x): перегрузок " + overruns
+                    + ", отброшено тактов " + droppedTicks);
+        }
+    }
+
+    private static class TickSchedulerHolder {
+        private static final TickScheduler INSTANCE =
+                new TickScheduler("events generator", DEFAULT_STEP_NANOS, DEFAULT_MAX_SUBSTEPS);
+    }
+}
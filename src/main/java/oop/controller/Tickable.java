@@ -0,0 +1,11 @@
+package oop.controller;
+
+/**
+ * Объект, который получает такты модели от {@link TickScheduler}.
+ */
+public interface Tickable {
+    /**
+     * Выполняет один такт модели фиксированной длительности.
+     */
+    void onTick();
+}
@@ -2,8 +2,9 @@ package oop.gui;
 
 import oop.locale.LangManager;
 import oop.locale.Retranslate;
-import oop.model.Robot;
+import oop.model.PoseListener;
 import oop.model.RobotBehavior;
+import oop.model.RobotPose;
 import oop.serialization.StateRestoreManager;
 import oop.serialization.StateSaverManager;
 import oop.serialization.Storable;
@@ -11,16 +12,17 @@ import oop.serialization.Storable;
 import javax.swing.*;
 import java.awt.*;
 import java.util.Map;
-import java.util.Observable;
-import java.util.Observer;
 
 /**
  * Окно, отображающее координаты робота.
  */
-public class CoordinatesWindow extends JInternalFrame implements Storable, Observer, Retranslate {
+public class CoordinatesWindow extends JInternalFrame implements Storable, PoseListener, Retranslate {
     private final String name = "CoordinatesWindow";
     private final JTextArea jTextArea = new JTextArea();
     private static final LangManager control = LangManager.getInstance();
+    private final RedrawCoordinator.Handle m_redraw = RedrawCoordinator.getInstance().register(this::updateText);
+    private volatile double m_robotPositionX;
+    private volatile double m_robotPositionY;
 
     public CoordinatesWindow(RobotBehavior robot) {
         super(control.getLocale("ROBOT_COORDINATES_WINDOW"), true, true,
@@ -29,7 +31,7 @@ public class CoordinatesWindow extends JInternalFrame implements Storable, Obser
         panel.add(jTextArea, BorderLayout.CENTER);
         getContentPane().add(panel);
         pack();
-        robot.addObserver(this);
+        robot.addPoseListener(this);
     }
 
     /**
@@ -55,21 +57,20 @@ public class CoordinatesWindow extends JInternalFrame implements Storable, Obser
     }
 
     /**
-     * This method is called whenever the observed object is changed. An
-     * application calls an {@code Observable} object's
-     * {@code notifyObservers} method to have all the object's
-     * observers notified of the change.
+     * Запоминает новые координаты робота; текст обновляется не чаще одного раза за кадр.
      *
-     * @param o   the observable object.
-     * @param arg an argument passed to the {@code notifyObservers}
-     *            method.
+     * @param robot Робот, положение которого изменилось.
+     * @param pose  Снимок нового положения.
      */
     @Override
-    public void update(Observable o, Object arg) {
-        if (o instanceof RobotBehavior robot)
-            if (arg.equals("Robot moved")) {
-                jTextArea.setText("x: " + robot.getM_robotPositionX() + " y: " + robot.getM_robotPositionY());
-            }
+    public void onPoseChanged(RobotBehavior robot, RobotPose pose) {
+        m_robotPositionX = pose.getRobotPositionX();
+        m_robotPositionY = pose.getRobotPositionY();
+        m_redraw.requestRedraw();
+    }
+
+    private void updateText() {
+        jTextArea.setText("x: " + m_robotPositionX + " y: " + m_robotPositionY);
     }
 
     /**
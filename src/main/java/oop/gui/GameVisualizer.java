@@ -1,49 +1,280 @@
 package oop.gui;
 
 import oop.controller.GameController;
+import oop.controller.TickScheduler;
+import oop.log.Logger;
+import oop.metrics.Metrics;
+import oop.model.ObstacleMap;
+import oop.model.PathPlanner;
+import oop.model.PoseListener;
 import oop.model.RobotBehavior;
+import oop.model.RobotPose;
 
 import java.awt.Color;
-import java.awt.EventQueue;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.Observable;
-import java.util.Observer;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
 
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
-public class GameVisualizer extends JPanel implements Observer {
+/**
+ * Игровое поле.
+ * <p>
+ * Поле перерисовывается не целиком, а только в прямоугольнике, где изображение могло
+ * измениться: раз в кадр положение робота и цели копируется в поля, которые читает
+ * {@link #paint(Graphics)}, а перерисовка запрашивается для объединения прежних и новых
+ * границ робота с учетом поворота эллипса; границы цели и маршрута добавляются,
+ * только если они изменились. Поэтому стоимость кадра зависит от того, что сдвинулось,
+ * а не от размера панели.
+ * <p>
+ * Кадры не привязаны к тактам модели. Поле хранит два последних снимка положения робота
+ * и в каждом кадре рисует робота между ними, сдвигая его от предыдущего снимка к текущему
+ * за ожидаемый интервал между обновлениями модели. Изображение отстает от модели
+ * на одно обновление, зато движение остается плавным и при редких тактах модели
+ * ({@link #setTickRate(double)}), а частоту кадров можно ограничить отдельно
+ * ({@link #setRenderRate(double)}).
+ */
+public class GameVisualizer extends JPanel implements PoseListener {
+    /**
+     * Системное свойство с путем к файлу записи сеанса; если оно задано, сеанс записывается.
+     */
+    public static final String REPLAY_PROPERTY = "robots.replay";
+    private static final int OBSTACLE_CELL_SIZE = 10;
+    private static final int OBSTACLE_MAP_SIZE = 300;
+    private static final int ROBOT_LENGTH = 30;
+    private static final int ROBOT_WIDTH = 10;
+    private static final int TARGET_SIZE = 5;
+    private static final int DIRTY_MARGIN = 2;
+    static final RobotSpriteCache.Style ROBOT_STYLE =
+            new RobotSpriteCache.Style(ROBOT_LENGTH, ROBOT_WIDTH, Color.MAGENTA, Color.BLACK, Color.WHITE);
+    private final ObstacleMap m_obstacles = new ObstacleMap(OBSTACLE_CELL_SIZE, OBSTACLE_MAP_SIZE, OBSTACLE_MAP_SIZE);
+    private final TickScheduler m_scheduler = TickScheduler.getInstance();
     private final GameController m_controller;
-    private volatile double m_robotPositionX = 100;
-    private volatile double m_robotPositionY = 100;
-    private volatile double m_robotDirection = 0;
-    private volatile int m_targetPositionX = 150;
-    private volatile int m_targetPositionY = 100;
+    private final RedrawCoordinator.Handle m_redraw = RedrawCoordinator.getInstance().register(this::repaintDirty);
+    private final Object m_snapshotLock = new Object();
+    private final RobotPose m_previousPose = new RobotPose();
+    private final RobotPose m_currentPose = new RobotPose();
+    private long m_currentPoseTime;
+    private volatile int m_targetPositionX;
+    private volatile int m_targetPositionY;
+    private volatile long m_renderIntervalNanos;
+    private long m_lastRender;
+    private double m_drawnPositionX;
+    private double m_drawnPositionY;
+    private double m_drawnDirection;
+    private int m_drawnTargetX;
+    private int m_drawnTargetY;
+    private int[] m_drawnRoute = new int[0];
+    private Rectangle m_drawnBounds;
+    private Rectangle m_drawnRouteBounds;
 
     public GameVisualizer(RobotBehavior robot) {
-        robot.addObserver(this);
-        m_controller = new GameController(robot);
+        // Робот мог быть восстановлен из контрольной точки, а перенос событий не порождает,
+        // поэтому начальное положение берется из модели.
+        robot.readPose(m_currentPose);
+        m_previousPose.copyFrom(m_currentPose);
+        m_targetPositionX = m_currentPose.getTargetPositionX();
+        m_targetPositionY = m_currentPose.getTargetPositionY();
+        m_drawnPositionX = m_currentPose.getRobotPositionX();
+        m_drawnPositionY = m_currentPose.getRobotPositionY();
+        m_drawnDirection = m_currentPose.getRobotDirection();
+        m_drawnTargetX = m_targetPositionX;
+        m_drawnTargetY = m_targetPositionY;
+        robot.addPoseListener(this);
+        m_controller = new GameController(robot, m_scheduler, new PathPlanner(m_obstacles));
         addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                m_controller.setTargetPositionRobot(e.getPoint());
-                setTargetPosition(e.getPoint());
-                repaint();
+                if (SwingUtilities.isRightMouseButton(e)) {
+                    toggleObstacle(e.getPoint());
+                } else {
+                    m_controller.setTargetPositionRobot(e.getPoint());
+                }
             }
         });
         setDoubleBuffered(true);
+        String replayPath = System.getProperty(REPLAY_PROPERTY);
+        if (replayPath != null) {
+            startRecording(new File(replayPath));
+        }
+    }
+
+    private void startRecording(File file) {
+        try {
+            m_controller.startRecording(file);
+            Runtime.getRuntime().addShutdownHook(new Thread(m_controller::stopRecording, "replay recorder"));
+        } catch (IOException e) {
+            Logger.error("Не удалось начать запись сеанса: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Задает частоту обновления модели. Модель обновляется раз в целое число тактов
+     * планировщика, поэтому частота округляется до ближайшей достижимой.
+     *
+     * @param rate Частота в герцах при единичной скорости симуляции.
+     */
+    public void setTickRate(double rate) {
+        if (!(rate > 0)) {
+            throw new IllegalArgumentException("Tick rate must be positive: " + rate);
+        }
+        double baseRate = 1e9 / m_scheduler.getStepNanos();
+        m_controller.setTicksPerUpdate((int) Math.max(1, Math.round(baseRate / rate)));
+    }
+
+    /**
+     * Возвращает частоту обновления модели.
+     *
+     * @return Частота в герцах при единичной скорости симуляции.
+     */
+    public double getTickRate() {
+        return 1e9 / ((double) m_scheduler.getStepNanos() * m_controller.getTicksPerUpdate());
     }
 
-    protected void setTargetPosition(Point p) {
-        m_targetPositionX = p.x;
-        m_targetPositionY = p.y;
+    /**
+     * Ограничивает частоту кадров поля. Кадры не бывают чаще кадров {@link RedrawCoordinator}.
+     *
+     * @param rate Частота в герцах; ноль снимает ограничение.
+     */
+    public void setRenderRate(double rate) {
+        if (!(rate >= 0)) {
+            throw new IllegalArgumentException("Render rate must not be negative: " + rate);
+        }
+        m_renderIntervalNanos = rate == 0 ? 0 : (long) (1e9 / rate);
+    }
+
+    /**
+     * Возвращает ограничение частоты кадров поля.
+     *
+     * @return Частота в герцах или ноль, если частота не ограничена.
+     */
+    public double getRenderRate() {
+        long interval = m_renderIntervalNanos;
+        return interval == 0 ? 0 : 1e9 / interval;
+    }
+
+    /**
+     * Занимает или освобождает клетку карты препятствий под точкой.
+     *
+     * @param p Точка на панели.
+     */
+    private void toggleObstacle(Point p) {
+        int cellX = m_obstacles.cellOf(p.x);
+        int cellY = m_obstacles.cellOf(p.y);
+        if (m_obstacles.contains(cellX, cellY)) {
+            m_obstacles.setBlocked(cellX, cellY, !m_obstacles.isBlocked(cellX, cellY));
+            repaint(cellX * OBSTACLE_CELL_SIZE, cellY * OBSTACLE_CELL_SIZE, OBSTACLE_CELL_SIZE, OBSTACLE_CELL_SIZE);
+        }
     }
 
     protected void onRedrawEvent() {
-        EventQueue.invokeLater(this::repaint);
+        m_redraw.requestRedraw();
+    }
+
+    /**
+     * Переносит положение робота, интерполированное между двумя последними снимками,
+     * в поля отрисовки и запрашивает перерисовку изменившейся области.
+     * Вызывается в потоке обработки событий раз в кадр.
+     */
+    private void repaintDirty() {
+        long now = System.nanoTime();
+        long frameNanos = RedrawCoordinator.getInstance().getFrameIntervalMillis() * 1_000_000L;
+        if (now - m_lastRender + frameNanos / 2 < m_renderIntervalNanos) {
+            m_redraw.requestRedraw();
+            return;
+        }
+        m_lastRender = now;
+        double progress;
+        synchronized (m_snapshotLock) {
+            long interval = m_controller.getUpdateIntervalNanos();
+            progress = interval <= 0 ? 1 : Math.min(1, Math.max(0, (double) (now - m_currentPoseTime) / interval));
+            m_drawnPositionX = interpolate(m_previousPose.getRobotPositionX(), m_currentPose.getRobotPositionX(),
+                    progress);
+            m_drawnPositionY = interpolate(m_previousPose.getRobotPositionY(), m_currentPose.getRobotPositionY(),
+                    progress);
+            double turn = m_currentPose.getRobotDirection() - m_previousPose.getRobotDirection();
+            turn -= 2 * Math.PI * Math.rint(turn / (2 * Math.PI));
+            m_drawnDirection = m_previousPose.getRobotDirection() + turn * progress;
+        }
+        if (progress < 1) {
+            m_redraw.requestRedraw();
+        }
+        Rectangle bounds = robotBounds(m_drawnPositionX, m_drawnPositionY, m_drawnDirection);
+        Rectangle dirty = new Rectangle(bounds);
+        if (m_drawnBounds != null) {
+            dirty.add(m_drawnBounds);
+        }
+        int targetX = m_targetPositionX;
+        int targetY = m_targetPositionY;
+        if (targetX != m_drawnTargetX || targetY != m_drawnTargetY) {
+            dirty.add(targetBounds(m_drawnTargetX, m_drawnTargetY));
+            dirty.add(targetBounds(targetX, targetY));
+            m_drawnTargetX = targetX;
+            m_drawnTargetY = targetY;
+        }
+        int[] route = m_controller.getRemainingRoute();
+        if (!Arrays.equals(route, m_drawnRoute)) {
+            Rectangle routeBounds = routeBounds(route);
+            if (m_drawnRouteBounds != null) {
+                dirty.add(m_drawnRouteBounds);
+            }
+            if (routeBounds != null) {
+                dirty.add(routeBounds);
+            }
+            m_drawnRoute = route;
+            m_drawnRouteBounds = routeBounds;
+        }
+        if (m_drawnBounds == null) {
+            repaint();
+        } else {
+            repaint(dirty);
+        }
+        m_drawnBounds = bounds;
+    }
+
+    /**
+     * Возвращает границы робота, повернутого на заданный угол.
+     * Полуоси эллипса a и b после поворота на угол t дают полуширину
+     * sqrt((a cos t)^2 + (b sin t)^2) и полувысоту sqrt((a sin t)^2 + (b cos t)^2).
+     */
+    private static Rectangle robotBounds(double x, double y, double direction) {
+        double cos = Math.cos(direction) * ROBOT_LENGTH / 2.0;
+        double sin = Math.sin(direction) * ROBOT_LENGTH / 2.0;
+        double cosWidth = Math.cos(direction) * ROBOT_WIDTH / 2.0;
+        double sinWidth = Math.sin(direction) * ROBOT_WIDTH / 2.0;
+        int halfWidth = (int) Math.ceil(Math.sqrt(cos * cos + sinWidth * sinWidth)) + DIRTY_MARGIN;
+        int halfHeight = (int) Math.ceil(Math.sqrt(sin * sin + cosWidth * cosWidth)) + DIRTY_MARGIN;
+        int centerX = round(x);
+        int centerY = round(y);
+        return new Rectangle(centerX - halfWidth, centerY - halfHeight, 2 * halfWidth + 1, 2 * halfHeight + 1);
+    }
+
+    private static double interpolate(double from, double to, double progress) {
+        return from + (to - from) * progress;
+    }
+
+    private static Rectangle targetBounds(int x, int y) {
+        int half = TARGET_SIZE / 2 + DIRTY_MARGIN;
+        return new Rectangle(x - half, y - half, 2 * half + 1, 2 * half + 1);
+    }
+
+    private static Rectangle routeBounds(int[] route) {
+        if (route.length < 4) {
+            return null;
+        }
+        Rectangle bounds = new Rectangle(route[0], route[1], 1, 1);
+        for (int i = 2; i < route.length; i += 2) {
+            bounds.add(new Rectangle(route[i], route[i + 1], 1, 1));
+        }
+        bounds.grow(DIRTY_MARGIN, DIRTY_MARGIN);
+        return bounds;
     }
 
     private static int round(double value) {
@@ -52,10 +283,15 @@ public class GameVisualizer extends JPanel implements Observer {
 
     @Override
     public void paint(Graphics g) {
+        long start = Metrics.start();
         super.paintComponent(g);
         Graphics2D g2d = (Graphics2D) g;
-        drawRobot(g2d, round(m_robotPositionX), round(m_robotPositionY), m_robotDirection);
-        drawTarget(g2d, m_targetPositionX, m_targetPositionY);
+        drawObstacles(g2d);
+        drawRoute(g2d);
+        RobotSpriteCache.getInstance().draw(g2d, ROBOT_STYLE,
+                round(m_drawnPositionX), round(m_drawnPositionY), m_drawnDirection);
+        drawTarget(g2d, m_drawnTargetX, m_drawnTargetY);
+        Metrics.getInstance().getPaintTime().recordSince(start);
     }
 
     private static void fillOval(Graphics g, int centerX, int centerY, int diam1, int diam2) {
@@ -66,46 +302,82 @@ public class GameVisualizer extends JPanel implements Observer {
         g.drawOval(centerX - diam1 / 2, centerY - diam2 / 2, diam1, diam2);
     }
 
-    private void drawRobot(Graphics2D g, int robotCenterX, int robotCenterY, double direction) {
+    /**
+     * Рисует робота векторно; используется для заполнения {@link RobotSpriteCache}.
+     *
+     * @param g            Графический контекст.
+     * @param style        Стиль робота.
+     * @param robotCenterX Центр робота по оси X.
+     * @param robotCenterY Центр робота по оси Y.
+     * @param direction    Направление робота.
+     */
+    static void drawRobot(Graphics2D g, RobotSpriteCache.Style style, int robotCenterX, int robotCenterY,
+                          double direction) {
+        int eyeOffset = style.length() / 3;
+        int eyeSize = style.width() / 2;
         g.rotate(direction, robotCenterX, robotCenterY);
-        g.setColor(Color.MAGENTA);
-        fillOval(g, robotCenterX, robotCenterY, 30, 10);
-        g.setColor(Color.BLACK);
-        drawOval(g, robotCenterX, robotCenterY, 30, 10);
-        g.setColor(Color.WHITE);
-        fillOval(g, robotCenterX + 10, robotCenterY, 5, 5);
-        g.setColor(Color.BLACK);
-        drawOval(g, robotCenterX + 10, robotCenterY, 5, 5);
+        g.setColor(style.body());
+        fillOval(g, robotCenterX, robotCenterY, style.length(), style.width());
+        g.setColor(style.outline());
+        drawOval(g, robotCenterX, robotCenterY, style.length(), style.width());
+        g.setColor(style.eye());
+        fillOval(g, robotCenterX + eyeOffset, robotCenterY, eyeSize, eyeSize);
+        g.setColor(style.outline());
+        drawOval(g, robotCenterX + eyeOffset, robotCenterY, eyeSize, eyeSize);
         g.rotate(-direction, robotCenterX, robotCenterY);
     }
 
+    private void drawObstacles(Graphics2D g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int fromX = Math.max(0, m_obstacles.cellOf(clip.x));
+        int fromY = Math.max(0, m_obstacles.cellOf(clip.y));
+        int toX = Math.min(m_obstacles.getWidth() - 1, m_obstacles.cellOf(clip.x + clip.width));
+        int toY = Math.min(m_obstacles.getHeight() - 1, m_obstacles.cellOf(clip.y + clip.height));
+        g.setColor(Color.GRAY);
+        for (int cellY = fromY; cellY <= toY; cellY++) {
+            for (int cellX = fromX; cellX <= toX; cellX++) {
+                if (m_obstacles.isBlocked(cellX, cellY)) {
+                    g.fillRect(cellX * OBSTACLE_CELL_SIZE, cellY * OBSTACLE_CELL_SIZE,
+                            OBSTACLE_CELL_SIZE, OBSTACLE_CELL_SIZE);
+                }
+            }
+        }
+    }
+
+    private void drawRoute(Graphics2D g) {
+        int[] route = m_drawnRoute;
+        g.setColor(Color.LIGHT_GRAY);
+        for (int i = 2; i < route.length; i += 2) {
+            g.drawLine(route[i - 2], route[i - 1], route[i], route[i + 1]);
+        }
+    }
+
     private void drawTarget(Graphics2D g, int x, int y) {
         g.setColor(Color.GREEN);
-        fillOval(g, x, y, 5, 5);
+        fillOval(g, x, y, TARGET_SIZE, TARGET_SIZE);
         g.setColor(Color.BLACK);
-        drawOval(g, x, y, 5, 5);
+        drawOval(g, x, y, TARGET_SIZE, TARGET_SIZE);
     }
 
     /**
-     * This method is called whenever the observed object is changed. An
-     * application calls an {@code Observable} object's
-     * {@code notifyObservers} method to have all the object's
-     * observers notified of the change.
+     * Запоминает новый снимок положения робота, сдвигая текущий в предыдущие,
+     * и запрашивает перерисовку.
      *
-     * @param o   the observable object.
-     * @param arg an argument passed to the {@code notifyObservers}
-     *            method.
+     * @param robot Робот, положение которого изменилось.
+     * @param pose  Снимок нового положения.
      */
     @Override
-    public void update(Observable o, Object arg) {
-        if (o instanceof RobotBehavior robot)
-            if (arg.equals("Robot moved")) {
-                m_robotPositionX = robot.getM_robotPositionX();
-                m_robotPositionY = robot.getM_robotPositionY();
-                m_robotDirection = robot.getM_robotDirection();
-                m_targetPositionX = robot.getM_targetPositionX();
-                m_targetPositionY = robot.getM_targetPositionY();
-                onRedrawEvent();
-            }
+    public void onPoseChanged(RobotBehavior robot, RobotPose pose) {
+        synchronized (m_snapshotLock) {
+            m_previousPose.copyFrom(m_currentPose);
+            m_currentPose.copyFrom(pose);
+            m_currentPoseTime = System.nanoTime();
+        }
+        m_targetPositionX = pose.getTargetPositionX();
+        m_targetPositionY = pose.getTargetPositionY();
+        onRedrawEvent();
     }
 }
@@ -13,12 +13,32 @@ import java.util.Map;
 import javax.swing.*;
 
 
+/**
+ * Окно игрового поля. Для поля {@link GameVisualizer} окно задает частоту обновления
+ * модели и частоту кадров и сохраняет их вместе с положением окна.
+ */
 public class GameWindow extends JInternalFrame implements Storable, Retranslate {
-    private final String name = "GameWindow";
+    private final String name;
+    private final String titleKey;
     private static final LangManager control = LangManager.getInstance();
+    private final JComponent m_component;
 
     public GameWindow(JComponent jComponent) {
-        super(control.getLocale("GAME_WINDOW"), true, true, true, true);
+        this(jComponent, "GameWindow", "GAME_WINDOW");
+    }
+
+    /**
+     * Создает окно поля с собственным именем для сохранения состояния.
+     *
+     * @param jComponent Компонент поля.
+     * @param name       Имя окна в сохраненном состоянии.
+     * @param titleKey   Ключ локализованного заголовка.
+     */
+    public GameWindow(JComponent jComponent, String name, String titleKey) {
+        super(control.getLocale(titleKey), true, true, true, true);
+        this.name = name;
+        this.titleKey = titleKey;
+        m_component = jComponent;
         JPanel panel = new JPanel(new BorderLayout());
         panel.add(jComponent, BorderLayout.CENTER);
         getContentPane().add(panel);
@@ -29,12 +49,46 @@ public class GameWindow extends JInternalFrame implements Storable, Retranslate
     public void save(Map<String, String> states) {
         StateSaverManager stateSaverManager = new StateSaverManager(name);
         stateSaverManager.save(states, this);
+        if (m_component instanceof GameVisualizer visualizer) {
+            states.put(name + "_tickRate", String.valueOf(visualizer.getTickRate()));
+            states.put(name + "_renderRate", String.valueOf(visualizer.getRenderRate()));
+        }
     }
 
     @Override
     public void restore(Map<String, String> states) {
         StateRestoreManager stateRestoreManager = new StateRestoreManager(name);
         stateRestoreManager.restore(states, this);
+        String tickRate = states.get(name + "_tickRate");
+        if (tickRate != null) {
+            setTickRate(Double.parseDouble(tickRate));
+        }
+        String renderRate = states.get(name + "_renderRate");
+        if (renderRate != null) {
+            setRenderRate(Double.parseDouble(renderRate));
+        }
+    }
+
+    /**
+     * Задает частоту обновления модели поля.
+     *
+     * @param rate Частота в герцах при единичной скорости симуляции.
+     */
+    public void setTickRate(double rate) {
+        if (m_component instanceof GameVisualizer visualizer) {
+            visualizer.setTickRate(rate);
+        }
+    }
+
+    /**
+     * Ограничивает частоту кадров поля.
+     *
+     * @param rate Частота в герцах; ноль снимает ограничение.
+     */
+    public void setRenderRate(double rate) {
+        if (m_component instanceof GameVisualizer visualizer) {
+            visualizer.setRenderRate(rate);
+        }
     }
 
     /**
@@ -42,7 +96,7 @@ public class GameWindow extends JInternalFrame implements Storable, Retranslate
      */
     @Override
     public void translate() {
-        setTitle(control.getLocale("GAME_WINDOW"));
+        setTitle(control.getLocale(titleKey));
     }
     public void setBehavior(RobotBehavior robot){
 
@@ -0,0 +1,348 @@
+package oop.gui;
+
+import oop.model.DubinsSteering;
+import oop.model.GreedySteering;
+import oop.model.Robot;
+import oop.model.RobotBehavior;
+import oop.model.RobotPose;
+import oop.model.SteeringStrategy;
+import oop.model.TestModel;
+import oop.serialization.Replay;
+import oop.serialization.ReplayRecorder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Запуск модели робота без графического интерфейса.
+ * <p>
+ * Модель тактуется с максимальной скоростью, без привязки к реальному времени.
+ * Цели задаются сценарием: строками вида {@code такт x y} в файле ({@code --script})
+ * или аргументами {@code --target такт:x:y}. По окончании печатается
+ * производительность (тактов в секунду) и итоговое состояние робота.
+ * С ключом {@code --fast-forward запас} однотипные такты между командами
+ * пропускаются через {@link RobotBehavior#fastForward(long, double)}; запас —
+ * расстояние до границы смены решения управления, при котором переход еще принимается.
+ * Ключ {@code --steering greedy|dubins} выбирает стратегию управления встроенного робота.
+ * <p>
+ * Ключ {@code --record файл} записывает прогон в формате {@link ReplayRecorder}, а
+ * {@code --replay файл} воспроизводит запись, сделанную в интерфейсе или без него:
+ * робот ставится в начальное положение записи, команды применяются на своих тактах,
+ * и по окончании конечное положение сверяется с записанным с точностью
+ * {@code --replay-epsilon} (по умолчанию {@value #DEFAULT_REPLAY_EPSILON}).
+ * При расхождении программа завершается с кодом 1.
+ * <pre>
+ * java -cp Robots.jar oop.gui.HeadlessProgram --model robot --ticks 1000000 --target 0:300:200
+ * java -cp Robots.jar oop.gui.HeadlessProgram --jar oop.jar --class oop.gui.TestModel --script targets.txt
+ * </pre>
+ */
+public class HeadlessProgram {
+    private static final long DEFAULT_TICKS = 1_000_000;
+    private static final double DEFAULT_REPLAY_EPSILON = 1e-6;
+
+    /**
+     * Команда сценария: установка цели на заданном такте.
+     *
+     * @param tick Номер такта, перед которым применяется команда.
+     * @param x    Целевая позиция по оси X.
+     * @param y    Целевая позиция по оси Y.
+     */
+    private record TargetCommand(long tick, int x, int y) {
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        String model = "robot";
+        String jarPath = null;
+        String className = null;
+        long ticks = DEFAULT_TICKS;
+        double clearance = -1;
+        double replayEpsilon = DEFAULT_REPLAY_EPSILON;
+        SteeringStrategy steering = null;
+        File recordFile = null;
+        Replay replay = null;
+        boolean ticksSet = false;
+        List<TargetCommand> script = new ArrayList<>();
+        RobotBehavior robot;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--model" -> model = value(args, i++);
+                    case "--jar" -> {
+                        model = "jar";
+                        jarPath = value(args, i++);
+                    }
+                    case "--class" -> className = value(args, i++);
+                    case "--ticks" -> {
+                        ticks = Long.parseLong(value(args, i++));
+                        if (ticks <= 0) {
+                            throw new IllegalArgumentException("Число тактов должно быть положительным: " + ticks);
+                        }
+                        ticksSet = true;
+                    }
+                    case "--target" -> script.add(parseCommand(value(args, i++).split(":")));
+                    case "--script" -> script.addAll(readScript(new File(value(args, i++))));
+                    case "--fast-forward" -> clearance = Double.parseDouble(value(args, i++));
+                    case "--steering" -> steering = parseSteering(value(args, i++));
+                    case "--record" -> recordFile = new File(value(args, i++));
+                    case "--replay" -> replay = Replay.read(new File(value(args, i++)));
+                    case "--replay-epsilon" -> replayEpsilon = Double.parseDouble(value(args, i++));
+                    default -> throw new IllegalArgumentException("Неизвестный аргумент: " + args[i]);
+                }
+            }
+            robot = createModel(model, jarPath, className);
+        } catch (RuntimeException | IOException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(2);
+            return;
+        }
+        if (steering != null && robot instanceof Robot builtIn) {
+            builtIn.setSteeringStrategy(steering);
+        }
+        if (replay != null) {
+            prepareReplay(robot, replay, script);
+            if (!ticksSet) {
+                ticks = replay.getEndTick();
+            }
+        }
+        script.sort(Comparator.comparingLong(TargetCommand::tick));
+        ReplayRecorder recorder = null;
+        if (recordFile != null) {
+            try {
+                recorder = startRecording(robot, recordFile, script, ticks);
+            } catch (IOException e) {
+                System.err.println("Не удалось записать сеанс: " + e.getMessage());
+                System.exit(2);
+                return;
+            }
+        }
+
+        long startTime = System.nanoTime();
+        if (clearance < 0) {
+            run(robot, script, ticks);
+        } else {
+            fastForward(robot, script, ticks, clearance);
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        double seconds = elapsed / 1e9;
+        System.out.printf("ticks: %d%n", ticks);
+        System.out.printf("time: %.3f s%n", seconds);
+        System.out.printf("throughput: %.0f ticks/s%n", ticks / seconds);
+        System.out.printf("position: x=%.6f y=%.6f direction=%.6f%n", robot.getM_robotPositionX(),
+                robot.getM_robotPositionY(), robot.getM_robotDirection());
+        System.out.printf("target: x=%d y=%d%n", robot.getM_targetPositionX(), robot.getM_targetPositionY());
+        if (recorder != null) {
+            try {
+                recorder.finish(ticks, readPose(robot));
+                System.out.printf("recorded: %d bytes%n", recorder.getBytesWritten());
+            } catch (IOException e) {
+                System.err.println("Не удалось записать сеанс: " + e.getMessage());
+                System.exit(2);
+            }
+        }
+        if (replay != null && replay.getFinalPose() != null && ticks == replay.getEndTick()
+                && !checkReplay(robot, replay.getFinalPose(), replayEpsilon)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Возвращает значение ключа командной строки.
+     *
+     * @param args Аргументы командной строки.
+     * @param flag Индекс ключа.
+     * @return Аргумент, следующий за ключом.
+     * @throws IllegalArgumentException Если за ключом нет значения.
+     */
+    private static String value(String[] args, int flag) {
+        if (flag + 1 >= args.length) {
+            throw new IllegalArgumentException("Не указано значение для " + args[flag]);
+        }
+        return args[flag + 1];
+    }
+
+    /**
+     * Ставит робота в начальное положение записи и добавляет ее команды в сценарий.
+     */
+    private static void prepareReplay(RobotBehavior robot, Replay replay, List<TargetCommand> script) {
+        RobotPose initial = replay.getInitialPose();
+        if (robot.supportsSetPose()) {
+            robot.setPose(initial.getRobotPositionX(), initial.getRobotPositionY(), initial.getRobotDirection());
+        } else {
+            System.err.println("Модель не поддерживает установку положения, начальное положение записи не применено");
+        }
+        robot.setTargetPosition(initial.getTargetPositionX(), initial.getTargetPositionY());
+        for (int i = 0; i < replay.size(); i++) {
+            script.add(new TargetCommand(replay.getTick(i), replay.getTargetX(i), replay.getTargetY(i)));
+        }
+    }
+
+    /**
+     * Открывает запись прогона и заранее записывает команды сценария, попадающие в прогон.
+     */
+    private static ReplayRecorder startRecording(RobotBehavior robot, File file, List<TargetCommand> script,
+                                                 long ticks) throws IOException {
+        ReplayRecorder recorder = new ReplayRecorder(file, readPose(robot));
+        for (TargetCommand command : script) {
+            if (command.tick() < ticks) {
+                recorder.record(command.tick(), command.x(), command.y());
+            }
+        }
+        return recorder;
+    }
+
+    /**
+     * Сверяет конечное положение робота с записанным.
+     *
+     * @return `true`, если положение совпадает с точностью до {@code epsilon}.
+     */
+    private static boolean checkReplay(RobotBehavior robot, RobotPose expected, double epsilon) {
+        RobotPose actual = readPose(robot);
+        double diffX = Math.abs(actual.getRobotPositionX() - expected.getRobotPositionX());
+        double diffY = Math.abs(actual.getRobotPositionY() - expected.getRobotPositionY());
+        double diffDirection = Math.abs(actual.getRobotDirection() - expected.getRobotDirection());
+        diffDirection = Math.min(diffDirection, 2 * Math.PI - diffDirection);
+        boolean matches = diffX <= epsilon && diffY <= epsilon && diffDirection <= epsilon
+                && actual.getTargetPositionX() == expected.getTargetPositionX()
+                && actual.getTargetPositionY() == expected.getTargetPositionY();
+        if (matches) {
+            System.out.println("replay: final pose matches");
+        } else {
+            System.out.printf("replay: final pose differs: dx=%g dy=%g ddirection=%g%n", diffX, diffY, diffDirection);
+        }
+        return matches;
+    }
+
+    private static RobotPose readPose(RobotBehavior robot) {
+        RobotPose pose = new RobotPose();
+        robot.readPose(pose);
+        return pose;
+    }
+
+    /**
+     * Создает стратегию управления по имени.
+     *
+     * @param name Имя стратегии: {@code greedy} или {@code dubins}.
+     * @return Стратегия управления.
+     */
+    private static SteeringStrategy parseSteering(String name) {
+        return switch (name) {
+            case "greedy" -> new GreedySteering();
+            case "dubins" -> new DubinsSteering();
+            default -> throw new IllegalArgumentException("Неизвестная стратегия управления: " + name);
+        };
+    }
+
+    /**
+     * Тактует модель заданное число раз, применяя команды сценария.
+     *
+     * @param robot  Модель робота.
+     * @param script Команды, упорядоченные по номеру такта.
+     * @param ticks  Число тактов.
+     */
+    private static void run(RobotBehavior robot, List<TargetCommand> script, long ticks) {
+        int next = 0;
+        for (long tick = 0; tick < ticks; tick++) {
+            while (next < script.size() && script.get(next).tick() <= tick) {
+                TargetCommand command = script.get(next++);
+                robot.setTargetPosition(command.x(), command.y());
+            }
+            robot.onModelUpdateEvent();
+        }
+    }
+
+    /**
+     * Продвигает модель между командами сценария крупными переходами.
+     *
+     * @param robot     Модель робота.
+     * @param script    Команды, упорядоченные по номеру такта.
+     * @param ticks     Число тактов.
+     * @param clearance Запас до границы смены решения управления.
+     */
+    private static void fastForward(RobotBehavior robot, List<TargetCommand> script, long ticks,
+                                    double clearance) {
+        long tick = 0;
+        for (TargetCommand command : script) {
+            if (command.tick() >= ticks) {
+                break;
+            }
+            if (command.tick() > tick) {
+                robot.fastForward(command.tick() - tick, clearance);
+                tick = command.tick();
+            }
+            robot.setTargetPosition(command.x(), command.y());
+        }
+        if (ticks > tick) {
+            robot.fastForward(ticks - tick, clearance);
+        }
+    }
+
+    /**
+     * Создает модель робота.
+     *
+     * @param model     Встроенная модель ({@code robot}, {@code test}) или {@code jar}.
+     * @param jarPath   Путь к JAR-файлу с моделью.
+     * @param className Полное имя класса модели в JAR-файле.
+     * @return Модель робота.
+     * @throws IllegalArgumentException Если модель не задана полностью или не создана.
+     */
+    private static RobotBehavior createModel(String model, String jarPath, String className) {
+        return switch (model) {
+            case "robot" -> new Robot();
+            case "test" -> new TestModel();
+            case "jar" -> {
+                if (jarPath == null || className == null) {
+                    throw new IllegalArgumentException("Для модели из JAR нужны --jar и --class");
+                }
+                RobotBehavior loaded = new JarFileLoader(new File(jarPath)).loadClassFromJar(className);
+                if (loaded == null) {
+                    throw new IllegalArgumentException("Не удалось создать модель " + className + " из " + jarPath);
+                }
+                yield loaded;
+            }
+            default -> throw new IllegalArgumentException("Неизвестная модель: " + model);
+        };
+    }
+
+    /**
+     * Читает сценарий из файла. Пустые строки и строки, начинающиеся с {@code #}, пропускаются.
+     *
+     * @param file Файл сценария.
+     * @return Команды сценария.
+     * @throws IOException Если файл не удалось прочитать.
+     */
+    private static List<TargetCommand> readScript(File file) throws IOException {
+        List<TargetCommand> commands = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                commands.add(parseCommand(line.split("\\s+")));
+            }
+        }
+        return commands;
+    }
+
+    private static TargetCommand parseCommand(String[] parts) {
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Команда должна иметь вид 'такт x y': " + String.join(" ", parts));
+        }
+        return new TargetCommand(Long.parseLong(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+    }
+
+    private static void printUsage() {
+        System.err.println("Использование: HeadlessProgram [--model robot|test] [--jar файл --class имя]"
+                + " [--ticks N] [--target такт:x:y]... [--script файл] [--fast-forward запас]"
+                + " [--steering greedy|dubins] [--record файл] [--replay файл] [--replay-epsilon e]");
+    }
+}
@@ -22,13 +22,11 @@ public class JarFileLoader {
      */
     public JarFileLoader(File jarFile) {
         if (!jarFile.exists() || !jarFile.isFile()) {
-            JOptionPane.showMessageDialog(null, "Файл не существует или недоступен",
-                    "Ошибка", JOptionPane.ERROR_MESSAGE);
+            showError("Файл не существует или недоступен");
             throw new IllegalArgumentException("Файл не существует или недоступен");
         }
         if (!jarFile.getName().toLowerCase().endsWith(".jar")) {
-            JOptionPane.showMessageDialog(null, "Выбранный файл не является JAR-файлом",
-                    "Ошибка", JOptionPane.ERROR_MESSAGE);
+            showError("Выбранный файл не является JAR-файлом");
             throw new IllegalArgumentException("Файл не является JAR-файлом");
         }
         try {
@@ -41,6 +39,19 @@ public class JarFileLoader {
         }
     }
 
+    /**
+     * Показывает сообщение об ошибке, если доступен графический интерфейс.
+     *
+     * @param message Текст сообщения.
+     */
+    private static void showError(String message) {
+        if (GraphicsEnvironment.isHeadless()) {
+            System.err.println(message);
+            return;
+        }
+        JOptionPane.showMessageDialog(null, message, "Ошибка", JOptionPane.ERROR_MESSAGE);
+    }
+
     /**
      * Загружает класс из указанного JAR-файла.
      *
@@ -1,52 +1,90 @@
 package oop.gui;
 
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.util.Map;
 
+import javax.swing.AbstractListModel;
+import javax.swing.BoundedRangeModel;
+import javax.swing.DefaultListCellRenderer;
 import javax.swing.JInternalFrame;
+import javax.swing.JList;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
 
 import oop.locale.LangManager;
 import oop.locale.Retranslate;
 import oop.log.LogChangeListener;
 import oop.log.LogEntry;
 import oop.log.LogWindowSource;
+import oop.log.RingBuffer;
 import oop.serialization.StateRestoreManager;
 import oop.serialization.StateSaverManager;
 import oop.serialization.Storable;
 
+/**
+ * Окно протокола.
+ * <p>
+ * Сообщения показываются списком, модель которого читает их прямо из буфера источника
+ * по номерам. У строк фиксированы и высота, и ширина (по ширине видимой области), поэтому
+ * список не измеряет строки при раскладке и отрисовывает только видимые: новые сообщения
+ * добавляются событиями о вставке и удалении диапазонов, а текст сообщения строится только
+ * для показанных строк. Обновление выполняется не чаще одного раза за кадр.
+ */
 public class LogWindow extends JInternalFrame implements LogChangeListener, Storable, Retranslate {
     private final LogWindowSource m_logSource;
-    private final TextArea m_logContent;
+    private final LogListModel m_model;
+    private final JList<LogEntry> m_logContent;
+    private final JScrollPane m_scrollPane;
+    private final RedrawCoordinator.Handle m_redraw = RedrawCoordinator.getInstance().register(this::updateLogContent);
     private final String name = "LogWindow";
     private static final LangManager control = LangManager.getInstance();
+    private static final int INITIAL_WIDTH = 200;
 
     public LogWindow(LogWindowSource logSource) {
         super(control.getLocale("LOG_WINDOW"), true, true, true, true);
         m_logSource = logSource;
-        m_logSource.registerListener(this);
-        m_logContent = new TextArea("");
-        m_logContent.setSize(200, 500);
+        m_model = new LogListModel(logSource.getMessages());
+        m_logContent = new JList<>(m_model);
+        m_logContent.setFixedCellHeight(m_logContent.getFontMetrics(m_logContent.getFont()).getHeight() + 2);
+        m_logContent.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                String text = value instanceof LogEntry entry ? entry.getMessage() : "…";
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+        m_logContent.setFixedCellWidth(INITIAL_WIDTH);
+        m_scrollPane = new JScrollPane(m_logContent);
+        m_scrollPane.setPreferredSize(new Dimension(INITIAL_WIDTH, 500));
+        m_scrollPane.getViewport().addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                m_logContent.setFixedCellWidth(Math.max(1, m_scrollPane.getViewport().getWidth()));
+            }
+        });
 
         JPanel panel = new JPanel(new BorderLayout());
-        panel.add(m_logContent, BorderLayout.CENTER);
+        panel.add(m_scrollPane, BorderLayout.CENTER);
         getContentPane().add(panel);
         pack();
+        m_logSource.registerListener(this);
         updateLogContent();
     }
 
     private void updateLogContent() {
-        StringBuilder content = new StringBuilder();
-        for (LogEntry entry : m_logSource.all()) {
-            content.append(entry.getMessage()).append("\n");
+        BoundedRangeModel scroll = m_scrollPane.getVerticalScrollBar().getModel();
+        boolean atEnd = scroll.getValue() + scroll.getExtent() >= scroll.getMaximum();
+        if (m_model.update() && atEnd) {
+            m_logContent.ensureIndexIsVisible(m_model.getSize() - 1);
         }
-        m_logContent.setText(content.toString());
-        m_logContent.invalidate();
     }
 
     @Override
     public void onLogChanged() {
-        EventQueue.invokeLater(this::updateLogContent);
+        m_redraw.requestRedraw();
     }
 
     @Override
@@ -68,4 +106,56 @@ public class LogWindow extends JInternalFrame implements LogChangeListener, Stor
     public void translate() {
         setTitle(control.getLocale("LOG_WINDOW"));
     }
+
+    /**
+     * Модель списка поверх буфера сообщений: строка {@code i} — сообщение с номером
+     * {@code first + i}. Модель меняется только в потоке обработки событий.
+     */
+    private static final class LogListModel extends AbstractListModel<LogEntry> {
+        private final RingBuffer<LogEntry> m_messages;
+        private long m_first;
+        private long m_next;
+
+        private LogListModel(RingBuffer<LogEntry> messages) {
+            m_messages = messages;
+        }
+
+        /**
+         * Сдвигает окно модели к опубликованному содержимому буфера: строки, номера которых
+         * заняты, но еще не записаны, в модель не попадают, поэтому каждая строка показывает сообщение.
+         *
+         * @return {@code true}, если появились новые сообщения.
+         */
+        private boolean update() {
+            long next = m_messages.getPublishedSequence();
+            long oldest = Math.max(m_first, next - m_messages.getCapacity());
+            if (oldest > m_first) {
+                long removed = Math.min(oldest, m_next) - m_first;
+                m_first = oldest;
+                if (removed > 0) {
+                    fireIntervalRemoved(this, 0, (int) removed - 1);
+                }
+                if (m_next < m_first) {
+                    m_next = m_first;
+                }
+            }
+            if (next <= m_next) {
+                return false;
+            }
+            int from = getSize();
+            m_next = next;
+            fireIntervalAdded(this, from, getSize() - 1);
+            return true;
+        }
+
+        @Override
+        public int getSize() {
+            return (int) (m_next - m_first);
+        }
+
+        @Override
+        public LogEntry getElementAt(int index) {
+            return m_messages.get(m_first + index);
+        }
+    }
 }
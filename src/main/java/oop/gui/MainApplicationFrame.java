@@ -5,17 +5,21 @@ import java.awt.*;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.beans.PropertyVetoException;
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.*;
 import java.util.List;
 import javax.swing.*;
 
 
+import oop.controller.TickScheduler;
 import oop.locale.LangManager;
 import oop.locale.Retranslate;
 import oop.log.Logger;
 import oop.model.RobotBehavior;
+import oop.serialization.Checkpoint;
 import oop.serialization.StateIO;
 import oop.serialization.StateRestoreManager;
 import oop.serialization.StateSaverManager;
@@ -30,8 +34,14 @@ public class MainApplicationFrame extends JFrame implements Storable, Retranslat
     private final JDesktopPane desktopPane = new JDesktopPane();
     private final StateIO stateIO = new StateIO();
     private final String name = "MainApplicationFrame";
+    private static final int SWARM_SIZE = 100_000;
     private final RobotBehavior robot = new Robot();
+    private final File checkpointPath = new File(System.getProperty("user.home")
+            + File.separator + "Robots.checkpoint");
+    private final File swarmCheckpointPath = new File(System.getProperty("user.home")
+            + File.separator + "Robots.swarm.checkpoint");
     private final LangManager control = LangManager.getInstance();
+    private JInternalFrame swarmWindow;
     private static Locale currentLang = new Locale("ru");
 
     /**
@@ -56,8 +66,10 @@ public class MainApplicationFrame extends JFrame implements Storable, Retranslat
 
         setContentPane(desktopPane);
         addWindow(createLogWindow());
+        restoreRobot();
         addWindow(createGameWindow(new GameVisualizer(robot)));
         addWindow(createCoordinatesWindow());
+        addWindow(createMetricsWindow());
         setJMenuBar(generateMenuBar());
         stateIO.loadStates(getAllWindows());
         setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
@@ -82,6 +94,18 @@ public class MainApplicationFrame extends JFrame implements Storable, Retranslat
         return coordinatesWindow;
     }
 
+    /**
+     * Создает окно метрик
+     *
+     * @return Окно метрик
+     */
+    private JInternalFrame createMetricsWindow() {
+        MetricsWindow metricsWindow = new MetricsWindow();
+        metricsWindow.setSize(450, 180);
+        metricsWindow.setLocation(10, 380);
+        return metricsWindow;
+    }
+
     /**
      * Создает окно игры
      *
@@ -94,6 +118,38 @@ public class MainApplicationFrame extends JFrame implements Storable, Retranslat
         return gameWindow;
     }
 
+    /**
+     * Создает окно роя роботов
+     *
+     * @return Окно роя
+     */
+    /**
+     * Показывает окно роя роботов. Окно одно на приложение, поскольку все рои писали бы
+     * в один файл контрольной точки: если оно уже открыто, оно выводится на передний план.
+     */
+    private void showSwarmWindow() {
+        if (swarmWindow != null && !swarmWindow.isClosed() && swarmWindow.getParent() == desktopPane) {
+            try {
+                swarmWindow.setIcon(false);
+                swarmWindow.setSelected(true);
+            } catch (PropertyVetoException e) {
+                // Окно запретило выбор; достаточно вывести его на передний план.
+            }
+            swarmWindow.toFront();
+            return;
+        }
+        swarmWindow = createSwarmWindow();
+        addWindow(swarmWindow);
+    }
+
+    private JInternalFrame createSwarmWindow() {
+        GameWindow swarmWindow = new GameWindow(new SwarmVisualizer(SWARM_SIZE, swarmCheckpointPath),
+                "SwarmWindow", "SWARM_WINDOW");
+        swarmWindow.setSize(600, 600);
+        swarmWindow.setLocation(400, 0);
+        return swarmWindow;
+    }
+
     /**
      * Получает список всех внутренних окон
      *
@@ -121,11 +177,44 @@ public class MainApplicationFrame extends JFrame implements Storable, Retranslat
                 JOptionPane.YES_NO_OPTION);
         if (userChoice == JOptionPane.YES_OPTION) {
             stateIO.saveStates(getAllWindows());
+            saveRobot();
             this.dispose();
             setDefaultCloseOperation(EXIT_ON_CLOSE);
         }
     }
 
+    /**
+     * Восстанавливает положение и цель робота из контрольной точки, если она есть.
+     * Вызывается до создания контроллера, чтобы запись сеанса начиналась
+     * с восстановленного положения.
+     */
+    private void restoreRobot() {
+        if (!checkpointPath.exists()) {
+            return;
+        }
+        try {
+            Checkpoint checkpoint = Checkpoint.read(checkpointPath);
+            if (checkpoint.size() > 0) {
+                checkpoint.restore(0, robot);
+            }
+        } catch (IOException e) {
+            Logger.error(control.getLocale("CHECKPOINT_READ_ERROR") + e.getMessage());
+        }
+    }
+
+    /**
+     * Сохраняет положение и цель робота в контрольную точку.
+     */
+    private void saveRobot() {
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.capture(robot, 0);
+        try {
+            checkpoint.write(checkpointPath);
+        } catch (IOException e) {
+            Logger.error(control.getLocale("CHECKPOINT_WRITE_ERROR") + e.getMessage());
+        }
+    }
+
     /**
      * Создает окно лога
      *
@@ -247,6 +336,24 @@ public class MainApplicationFrame extends JFrame implements Storable, Retranslat
             JMenuItem logMessageItem = new JMenuItem(control.getLocale("FRAME_MES_LOG"), KeyEvent.VK_S);
             logMessageItem.addActionListener((event) -> Logger.debug(control.getLocale("LOG_MES")));
             testMenu.add(logMessageItem);
+            JMenuItem swarmItem = new JMenuItem(control.getLocale("FRAME_SWARM"), KeyEvent.VK_W);
+            swarmItem.addActionListener((event) -> showSwarmWindow());
+            testMenu.add(swarmItem);
+        }
+        JMenu speedMenu = new JMenu(control.getLocale("FRAME_SPEED"));
+        speedMenu.setMnemonic(KeyEvent.VK_P);
+        speedMenu.getAccessibleContext().setAccessibleDescription(control.getLocale("FRAME_SPEED"));
+        {
+            ButtonGroup speedGroup = new ButtonGroup();
+            double current = TickScheduler.getInstance().getTimeScale();
+            for (double timeScale : new double[]{0.1, 0.5, 1, 2, 5, 10, 100}) {
+                JRadioButtonMenuItem speedItem = new JRadioButtonMenuItem(
+                        (timeScale < 1 ? String.valueOf(timeScale) : String.valueOf((int) timeScale)) + "x",
+                        timeScale == current);
+                speedItem.addActionListener((event) -> TickScheduler.getInstance().setTimeScale(timeScale));
+                speedGroup.add(speedItem);
+                speedMenu.add(speedItem);
+            }
         }
         JMenu quitMenu = new JMenu(control.getLocale("FRAME_QUIT"));
         quitMenu.setMnemonic(KeyEvent.VK_T);
@@ -272,6 +379,11 @@ public class MainApplicationFrame extends JFrame implements Storable, Retranslat
                     RobotBehavior robotBehavior = null;
                     JarFileLoader jarFileLoader = new JarFileLoader(file);
                     robotBehavior = jarFileLoader.loadClassFromJar("oop.gui.TestModel");
+                    if (robotBehavior != null) {
+                        Checkpoint checkpoint = new Checkpoint();
+                        checkpoint.capture(robot, 0);
+                        checkpoint.restore(0, robotBehavior);
+                    }
                     JComponent jComponent = (JComponent) jarFileLoader.loadCompFromJar(
                             "oop.gui.TestVisualizer",
                             robotBehavior);
@@ -283,6 +395,7 @@ public class MainApplicationFrame extends JFrame implements Storable, Retranslat
         menuBar.add(ret);
         menuBar.add(switchLang);
         menuBar.add(lookAndFeelMenu);
+        menuBar.add(speedMenu);
         menuBar.add(testMenu);
         menuBar.add(quitMenu);
         return menuBar;
@@ -341,6 +454,7 @@ public class MainApplicationFrame extends JFrame implements Storable, Retranslat
             addWindow(createLogWindow());
             addWindow(createGameWindow(jComponent));
             addWindow(createCoordinatesWindow());
+            addWindow(createMetricsWindow());
 
             stateIO.loadStates(getAllWindows());
 
@@ -0,0 +1,123 @@
+package oop.gui;
+
+import oop.locale.LangManager;
+import oop.locale.Retranslate;
+import oop.metrics.Histogram;
+import oop.metrics.Metrics;
+import oop.serialization.StateRestoreManager;
+import oop.serialization.StateSaverManager;
+import oop.serialization.Storable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Map;
+
+/**
+ * Окно с метриками времени работы: перцентили длительности такта, опоздания такта,
+ * уведомления слушателей и отрисовки поля. Пока сбор выключен, окно не обновляется.
+ */
+public class MetricsWindow extends JInternalFrame implements Storable, Retranslate {
+    private static final int REFRESH_MILLIS = 500;
+    private final String name = "MetricsWindow";
+    private static final LangManager control = LangManager.getInstance();
+    private final Metrics m_metrics = Metrics.getInstance();
+    private final JTextArea jTextArea = new JTextArea();
+    private final JCheckBox m_enabledBox = new JCheckBox();
+    private final JButton m_resetButton = new JButton();
+    private final Timer m_timer = new Timer(REFRESH_MILLIS, e -> {
+        if (m_metrics.isEnabled()) {
+            updateText();
+        }
+    });
+
+    public MetricsWindow() {
+        super(control.getLocale("METRICS_WINDOW"), true, true, true, true);
+        jTextArea.setEditable(false);
+        jTextArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        m_enabledBox.setSelected(m_metrics.isEnabled());
+        m_enabledBox.addActionListener(e -> {
+            m_metrics.setEnabled(m_enabledBox.isSelected());
+            updateText();
+        });
+        m_resetButton.addActionListener(e -> {
+            m_metrics.reset();
+            updateText();
+        });
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controls.add(m_enabledBox);
+        controls.add(m_resetButton);
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(controls, BorderLayout.NORTH);
+        panel.add(jTextArea, BorderLayout.CENTER);
+        getContentPane().add(panel);
+        translate();
+        pack();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        m_timer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        m_timer.stop();
+        super.removeNotify();
+    }
+
+    private void updateText() {
+        StringBuilder text = new StringBuilder(control.getLocale("METRICS_UNITS")).append('\n');
+        text.append(String.format("%-14s %8s %9s %9s %9s %9s%n", "", "n", "p50", "p99", "p99.9", "max"));
+        appendRow(text, control.getLocale("METRICS_TICK"), m_metrics.getTickTime());
+        appendRow(text, control.getLocale("METRICS_LATENESS"), m_metrics.getTickLateness());
+        appendRow(text, control.getLocale("METRICS_FAN_OUT"), m_metrics.getFanOutTime());
+        appendRow(text, control.getLocale("METRICS_PAINT"), m_metrics.getPaintTime());
+        jTextArea.setText(text.toString());
+    }
+
+    private static void appendRow(StringBuilder text, String title, Histogram histogram) {
+        text.append(String.format("%-14s %8d %9.1f %9.1f %9.1f %9.1f%n", title, histogram.getCount(),
+                histogram.getValueAtPercentile(50) / 1e3, histogram.getValueAtPercentile(99) / 1e3,
+                histogram.getValueAtPercentile(99.9) / 1e3, histogram.getMax() / 1e3));
+    }
+
+    /**
+     * Сохраняет состояние объекта
+     *
+     * @param states Map, в которой будет сохранено состояние объекта
+     */
+    @Override
+    public void save(Map<String, String> states) {
+        StateSaverManager stateSaverManager = new StateSaverManager(name);
+        stateSaverManager.save(states, this);
+        states.put(name + "_enabled", String.valueOf(m_metrics.isEnabled()));
+    }
+
+    /**
+     * Восстанавливает состояние объекта
+     *
+     * @param states Map из которой будет восстановлено состояние объекта
+     */
+    @Override
+    public void restore(Map<String, String> states) {
+        StateRestoreManager stateRestoreManager = new StateRestoreManager(name);
+        stateRestoreManager.restore(states, this);
+        String enabled = states.get(name + "_enabled");
+        if (enabled != null) {
+            m_metrics.setEnabled(Boolean.parseBoolean(enabled));
+            m_enabledBox.setSelected(m_metrics.isEnabled());
+        }
+    }
+
+    /**
+     * Перевод на текущий язык.
+     */
+    @Override
+    public void translate() {
+        setTitle(control.getLocale("METRICS_WINDOW"));
+        m_enabledBox.setText(control.getLocale("METRICS_ENABLED"));
+        m_resetButton.setText(control.getLocale("METRICS_RESET"));
+        updateText();
+    }
+}
@@ -0,0 +1,178 @@
+package oop.gui;
+
+import javax.swing.Timer;
+import java.awt.DisplayMode;
+import java.awt.EventQueue;
+import java.awt.GraphicsEnvironment;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Координатор перерисовки, объединяющий уведомления модели по кадрам.
+ * <p>
+ * Поток модели только выставляет флаг «нужна перерисовка» у своего {@link Handle}.
+ * Таймер Swing раз в кадр обходит зарегистрированные компоненты и вызывает
+ * перерисовку у тех, чей флаг выставлен, поэтому на каждый компонент приходится
+ * не больше одной перерисовки за кадр, сколько бы тактов модели ни прошло.
+ * Координатор держит обработчики по слабым ссылкам: закрытое окно, на которое
+ * больше никто не ссылается, удаляется из обхода само. Если за кадр перерисовывать
+ * нечего, таймер останавливается и запускается снова при следующем запросе,
+ * чтобы простаивающее приложение не получало событий таймера.
+ * Частота кадров совпадает с частотой обновления основного экрана, если она известна,
+ * и равна 60 Гц в остальных случаях.
+ */
+public class RedrawCoordinator {
+    private static final int DEFAULT_FRAME_INTERVAL_MS = 16;
+
+    private final CopyOnWriteArrayList<WeakReference<Handle>> m_handles = new CopyOnWriteArrayList<>();
+    private final LongAdder m_requested = new LongAdder();
+    private final LongAdder m_coalesced = new LongAdder();
+    private final LongAdder m_performed = new LongAdder();
+    private final AtomicBoolean m_active = new AtomicBoolean();
+    private final Timer m_timer = new Timer(frameInterval(), event -> onFrame());
+
+    private RedrawCoordinator() {
+        m_timer.setCoalesce(true);
+    }
+
+    /**
+     * Получение экземпляра класса.
+     *
+     * @return Экземпляр класса RedrawCoordinator.
+     */
+    public static RedrawCoordinator getInstance() {
+        return RedrawCoordinatorHolder.INSTANCE;
+    }
+
+    private static int frameInterval() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return DEFAULT_FRAME_INTERVAL_MS;
+        }
+        DisplayMode mode = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDisplayMode();
+        int refreshRate = mode.getRefreshRate();
+        if (refreshRate == DisplayMode.REFRESH_RATE_UNKNOWN || refreshRate <= 0) {
+            return DEFAULT_FRAME_INTERVAL_MS;
+        }
+        return Math.max(1, 1000 / refreshRate);
+    }
+
+    /**
+     * Возвращает интервал между кадрами.
+     *
+     * @return Интервал в миллисекундах.
+     */
+    public int getFrameIntervalMillis() {
+        return m_timer.getDelay();
+    }
+
+    /**
+     * Регистрирует действие перерисовки. Действие выполняется в потоке обработки событий.
+     * Возвращенный обработчик нужно хранить, пока компонент используется.
+     *
+     * @param redraw Действие перерисовки.
+     * @return Обработчик для запросов перерисовки.
+     */
+    public Handle register(Runnable redraw) {
+        Handle handle = new Handle(redraw);
+        m_handles.add(new WeakReference<>(handle));
+        return handle;
+    }
+
+    /**
+     * Возвращает общее число запросов перерисовки.
+     *
+     * @return Число запросов.
+     */
+    public long getRequested() {
+        return m_requested.sum();
+    }
+
+    /**
+     * Возвращает число запросов, объединенных с уже ожидающей перерисовкой.
+     *
+     * @return Число объединенных запросов.
+     */
+    public long getCoalesced() {
+        return m_coalesced.sum();
+    }
+
+    /**
+     * Возвращает число выполненных перерисовок.
+     *
+     * @return Число перерисовок.
+     */
+    public long getPerformed() {
+        return m_performed.sum();
+    }
+
+    private void onFrame() {
+        boolean performed = false;
+        for (WeakReference<Handle> reference : m_handles) {
+            Handle handle = reference.get();
+            if (handle == null) {
+                m_handles.remove(reference);
+            } else if (handle.m_dirty.getAndSet(false)) {
+                m_performed.increment();
+                performed = true;
+                handle.m_redraw.run();
+            }
+        }
+        if (performed) {
+            return;
+        }
+        m_active.set(false);
+        if (!hasDirtyHandles() || !m_active.compareAndSet(false, true)) {
+            m_timer.stop();
+        }
+    }
+
+    private boolean hasDirtyHandles() {
+        for (WeakReference<Handle> reference : m_handles) {
+            Handle handle = reference.get();
+            if (handle != null && handle.m_dirty.get()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Запускает таймер кадров, если он остановлен. Запуск выполняется в потоке обработки событий.
+     */
+    private void activate() {
+        if (!m_active.get() && m_active.compareAndSet(false, true)) {
+            EventQueue.invokeLater(m_timer::start);
+        }
+    }
+
+    /**
+     * Обработчик, через который компонент запрашивает перерисовку.
+     */
+    public final class Handle {
+        private final Runnable m_redraw;
+        private final AtomicBoolean m_dirty = new AtomicBoolean();
+
+        private Handle(Runnable redraw) {
+            m_redraw = redraw;
+        }
+
+        /**
+         * Запрашивает перерисовку в ближайшем кадре. Может вызываться из любого потока.
+         */
+        public void requestRedraw() {
+            m_requested.increment();
+            if (m_dirty.getAndSet(true)) {
+                m_coalesced.increment();
+            } else {
+                activate();
+            }
+        }
+    }
+
+    private static class RedrawCoordinatorHolder {
+        private static final RedrawCoordinator INSTANCE = new RedrawCoordinator();
+    }
+}
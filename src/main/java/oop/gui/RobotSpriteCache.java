@@ -0,0 +1,236 @@
+package oop.gui;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кэш заранее отрисованных изображений робота.
+ * <p>
+ * Для каждого стиля (размер и цвета) и конфигурации экрана робот один раз рисуется под
+ * {@link #getHeadings()} равномерно распределенными углами в совместимые с экраном изображения,
+ * после чего отрисовка робота сводится к одному {@code drawImage} ближайшего по углу изображения.
+ * Поиск готовых изображений не берет блокировок. Число одновременно хранимых наборов
+ * ограничено: при добавлении нового вытесняется набор, который дольше всех не использовался.
+ * Отрисовка под углом, кратным шагу, совпадает с векторной попиксельно.
+ */
+public class RobotSpriteCache {
+    /**
+     * Число углов по умолчанию.
+     */
+    public static final int DEFAULT_HEADINGS = 256;
+    private static final int DEFAULT_MAX_STYLES = 16;
+    private static final int MARGIN = 2;
+
+    private final int m_headings;
+    private final int m_maxStyles;
+    private final Map<Key, Sprites> m_sprites = new ConcurrentHashMap<>();
+    private final AtomicLong m_clock = new AtomicLong();
+
+    /**
+     * Создает кэш.
+     *
+     * @param headings  Число углов, под которыми рисуется робот.
+     * @param maxStyles Наибольшее число хранимых стилей.
+     */
+    public RobotSpriteCache(int headings, int maxStyles) {
+        if (headings <= 0 || maxStyles <= 0) {
+            throw new IllegalArgumentException("headings and maxStyles must be positive");
+        }
+        m_headings = headings;
+        m_maxStyles = maxStyles;
+    }
+
+    /**
+     * Возвращает общий кэш приложения.
+     *
+     * @return Кэш изображений робота.
+     */
+    public static RobotSpriteCache getInstance() {
+        return RobotSpriteCacheHolder.INSTANCE;
+    }
+
+    /**
+     * Возвращает число углов, под которыми рисуется робот.
+     *
+     * @return Число углов.
+     */
+    public int getHeadings() {
+        return m_headings;
+    }
+
+    /**
+     * Возвращает изображения робота заданного стиля, при необходимости отрисовывая их.
+     * Готовые изображения возвращаются без блокировок; отрисовку нового набора
+     * одновременно выполняет только один поток.
+     *
+     * @param style         Стиль робота.
+     * @param configuration Конфигурация экрана для совместимых изображений или {@code null}.
+     * @return Изображения под всеми углами.
+     */
+    public Sprites getSprites(Style style, GraphicsConfiguration configuration) {
+        Key key = new Key(style, configuration);
+        Sprites sprites = m_sprites.get(key);
+        if (sprites == null) {
+            sprites = m_sprites.computeIfAbsent(key, k -> {
+                Sprites created = new Sprites(k.style(), m_headings, k.configuration());
+                created.m_lastUse = m_clock.getAndIncrement();
+                return created;
+            });
+            evict(key);
+            return sprites;
+        }
+        long clock = m_clock.get();
+        if (sprites.m_lastUse != clock) {
+            sprites.m_lastUse = clock;
+        }
+        return sprites;
+    }
+
+    /**
+     * Вытесняет наборы, дольше всех не использовавшиеся, пока их не станет не больше предела.
+     * Каждый промах продвигает часы, а попадание помечает набор их текущим значением,
+     * поэтому меньшая метка означает более давнее использование.
+     *
+     * @param added Только что добавленный набор, который не вытесняется.
+     */
+    private void evict(Key added) {
+        while (m_sprites.size() > m_maxStyles) {
+            Map.Entry<Key, Sprites> eldest = null;
+            for (Map.Entry<Key, Sprites> entry : m_sprites.entrySet()) {
+                if (entry.getKey().equals(added)) {
+                    continue;
+                }
+                if (eldest == null || entry.getValue().m_lastUse < eldest.getValue().m_lastUse) {
+                    eldest = entry;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            m_sprites.remove(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    /**
+     * Рисует робота одним изображением.
+     *
+     * @param g         Графический контекст.
+     * @param style     Стиль робота.
+     * @param centerX   Центр робота по оси X.
+     * @param centerY   Центр робота по оси Y.
+     * @param direction Направление робота.
+     */
+    public void draw(Graphics2D g, Style style, int centerX, int centerY, double direction) {
+        Sprites sprites = getSprites(style, g.getDeviceConfiguration());
+        int origin = sprites.getOrigin();
+        g.drawImage(sprites.get(direction), centerX - origin, centerY - origin, null);
+    }
+
+    /**
+     * Стиль робота: длина и ширина корпуса и цвета.
+     *
+     * @param length  Длина корпуса.
+     * @param width   Ширина корпуса.
+     * @param body    Цвет корпуса.
+     * @param outline Цвет контуров.
+     * @param eye     Цвет глаза.
+     */
+    public record Style(int length, int width, Color body, Color outline, Color eye) {
+    }
+
+    private record Key(Style style, GraphicsConfiguration configuration) {
+    }
+
+    /**
+     * Изображения робота одного стиля под всеми углами.
+     */
+    public static final class Sprites {
+        private final BufferedImage[] m_images;
+        private final int m_origin;
+        private int[][] m_pixels;
+        private volatile long m_lastUse;
+
+        private Sprites(Style style, int headings, GraphicsConfiguration configuration) {
+            m_origin = Math.max(style.length(), style.width()) / 2 + MARGIN;
+            int side = 2 * m_origin + 1;
+            m_images = new BufferedImage[headings];
+            for (int i = 0; i < headings; i++) {
+                BufferedImage image = configuration != null
+                        ? configuration.createCompatibleImage(side, side, Transparency.TRANSLUCENT)
+                        : new BufferedImage(side, side, BufferedImage.TYPE_INT_ARGB);
+                Graphics2D g = image.createGraphics();
+                GameVisualizer.drawRobot(g, style, m_origin, m_origin, 2 * Math.PI * i / headings);
+                g.dispose();
+                m_images[i] = image;
+            }
+        }
+
+        /**
+         * Возвращает изображение под ближайшим к направлению углом.
+         *
+         * @param direction Направление робота в радианах.
+         * @return Изображение робота.
+         */
+        public BufferedImage get(double direction) {
+            return m_images[headingOf(direction)];
+        }
+
+        /**
+         * Возвращает номер ближайшего к направлению угла.
+         *
+         * @param direction Направление робота в радианах.
+         * @return Номер угла от нуля до числа углов.
+         */
+        public int headingOf(double direction) {
+            int heading = (int) Math.round(direction * m_images.length / (2 * Math.PI)) % m_images.length;
+            return heading < 0 ? heading + m_images.length : heading;
+        }
+
+        /**
+         * Возвращает изображение под углом с заданным номером.
+         *
+         * @param heading Номер угла.
+         * @return Изображение робота.
+         */
+        public BufferedImage getImage(int heading) {
+            return m_images[heading];
+        }
+
+        /**
+         * Возвращает пиксели изображений в формате ARGB построчно, по массиву на угол.
+         * Массивы создаются при первом вызове и не должны изменяться.
+         *
+         * @return Пиксели изображений под всеми углами.
+         */
+        public synchronized int[][] getPixels() {
+            if (m_pixels == null) {
+                int side = 2 * m_origin + 1;
+                int[][] pixels = new int[m_images.length][];
+                for (int i = 0; i < m_images.length; i++) {
+                    pixels[i] = m_images[i].getRGB(0, 0, side, side, null, 0, side);
+                }
+                m_pixels = pixels;
+            }
+            return m_pixels;
+        }
+
+        /**
+         * Возвращает смещение центра робота от левого верхнего угла изображения.
+         *
+         * @return Смещение по обеим осям.
+         */
+        public int getOrigin() {
+            return m_origin;
+        }
+    }
+
+    private static class RobotSpriteCacheHolder {
+        private static final RobotSpriteCache INSTANCE = new RobotSpriteCache(DEFAULT_HEADINGS, DEFAULT_MAX_STYLES);
+    }
+}
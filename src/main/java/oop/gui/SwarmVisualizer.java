@@ -0,0 +1,238 @@
+package oop.gui;
+
+import oop.controller.Tickable;
+import oop.controller.TickScheduler;
+import oop.log.Logger;
+import oop.model.RobotWorld;
+import oop.serialization.Checkpoint;
+import oop.serialization.CheckpointWriter;
+
+import javax.swing.JPanel;
+import java.awt.Graphics;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Поле с большим роем роботов {@link RobotWorld}, отрисовываемое через {@link WorldRasterRenderer}.
+ * <p>
+ * Мир обновляется в потоке тактов; после такта, если предыдущий снимок уже нарисован,
+ * столбцы положений копируются в свободный буфер, и буферы меняются местами.
+ * Колесо мыши меняет масштаб вокруг указателя, перетаскивание сдвигает поле.
+ * Пока поле показано, роботы получают случайные цели по кругу, чтобы рой не замирал.
+ * <p>
+ * Если задан файл контрольной точки, рой при создании восстанавливается из него,
+ * а пока поле показано, каждые {@link #CHECKPOINT_INTERVAL_TICKS} тактов
+ * {@link CheckpointWriter} снимает состояние мира и пишет его в фоне.
+ */
+public class SwarmVisualizer extends JPanel {
+    private static final double DEFAULT_ZOOM = 0.25;
+    private static final double ZOOM_STEP = 1.25;
+    private static final double MIN_ZOOM = 1 / 64.0;
+    private static final double MAX_ZOOM = 8;
+    private static final int RETARGET_PERIOD_TICKS = 500;
+    /**
+     * Интервал между контрольными точками в тактах.
+     */
+    public static final long CHECKPOINT_INTERVAL_TICKS = 1000;
+
+    private final RobotWorld m_world;
+    private final int m_worldSize;
+    private final Random m_random = new Random();
+    private final WorldRasterRenderer m_renderer = new WorldRasterRenderer(GameVisualizer.ROBOT_STYLE, getBackground());
+    private final RedrawCoordinator.Handle m_redraw = RedrawCoordinator.getInstance().register(this::repaint);
+    private final Tickable m_tickable = this::onTick;
+    private final Object m_snapshotLock = new Object();
+    private final File m_checkpointFile;
+    private volatile CheckpointWriter m_checkpointWriter;
+    private long m_tick;
+    private Snapshot m_front;
+    private Snapshot m_back;
+    private boolean m_frontDrawn = true;
+    private int m_retargetNext;
+    private double m_zoom = DEFAULT_ZOOM;
+    private double m_originX;
+    private double m_originY;
+
+    /**
+     * Создает рой из заданного числа роботов в случайных положениях.
+     *
+     * @param robots Число роботов.
+     */
+    public SwarmVisualizer(int robots) {
+        this(robots, null);
+    }
+
+    /**
+     * Создает рой, восстанавливая его из контрольной точки, если она есть,
+     * и периодически сохраняя его туда.
+     *
+     * @param robots         Число роботов, если контрольной точки нет.
+     * @param checkpointFile Файл контрольной точки или {@code null}, чтобы не сохранять рой.
+     */
+    public SwarmVisualizer(int robots, File checkpointFile) {
+        m_checkpointFile = checkpointFile;
+        RobotWorld restored = restoreWorld(checkpointFile);
+        if (restored != null) {
+            m_world = restored;
+            robots = restored.size();
+            m_worldSize = (int) Math.ceil(Math.sqrt(robots) * 12);
+        } else {
+            m_worldSize = (int) Math.ceil(Math.sqrt(robots) * 12);
+            m_world = new RobotWorld(robots);
+            for (int i = 0; i < robots; i++) {
+                m_world.add(m_random.nextDouble() * m_worldSize, m_random.nextDouble() * m_worldSize,
+                        m_random.nextDouble() * 2 * Math.PI, m_random.nextInt(m_worldSize),
+                        m_random.nextInt(m_worldSize));
+            }
+        }
+        m_front = new Snapshot(robots);
+        m_back = new Snapshot(robots);
+        m_world.copyColumns(m_front.m_positionX, m_front.m_positionY, m_front.m_direction,
+                m_front.m_targetX, m_front.m_targetY);
+        MouseAdapter mouse = new MouseAdapter() {
+            private int m_lastX;
+            private int m_lastY;
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                m_lastX = e.getX();
+                m_lastY = e.getY();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                m_originX -= (e.getX() - m_lastX) / m_zoom;
+                m_originY -= (e.getY() - m_lastY) / m_zoom;
+                m_lastX = e.getX();
+                m_lastY = e.getY();
+                repaint();
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                double zoom = e.getWheelRotation() < 0 ? m_zoom * ZOOM_STEP : m_zoom / ZOOM_STEP;
+                zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom));
+                m_originX += e.getX() / m_zoom - e.getX() / zoom;
+                m_originY += e.getY() / m_zoom - e.getY() / zoom;
+                m_zoom = zoom;
+                repaint();
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+    }
+
+    private RobotWorld restoreWorld(File file) {
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        try {
+            Checkpoint checkpoint = Checkpoint.read(file);
+            if (checkpoint.size() == 0) {
+                return null;
+            }
+            m_tick = checkpoint.getTick();
+            return checkpoint.toWorld();
+        } catch (IOException e) {
+            Logger.error("Не удалось прочитать контрольную точку роя: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Возвращает мир роя.
+     *
+     * @return Мир роботов.
+     */
+    public RobotWorld getWorld() {
+        return m_world;
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (m_checkpointFile != null) {
+            m_checkpointWriter = new CheckpointWriter(m_checkpointFile, CHECKPOINT_INTERVAL_TICKS);
+        }
+        TickScheduler.getInstance().register(m_tickable);
+    }
+
+    @Override
+    public void removeNotify() {
+        TickScheduler.getInstance().unregister(m_tickable);
+        if (m_checkpointWriter != null) {
+            m_checkpointWriter.close();
+            m_checkpointWriter = null;
+        }
+        super.removeNotify();
+    }
+
+    private void onTick() {
+        int size = m_world.size();
+        int retargets = Math.max(1, size / RETARGET_PERIOD_TICKS);
+        for (int i = 0; i < retargets; i++) {
+            m_world.setTargetPosition(m_retargetNext, m_random.nextInt(m_worldSize), m_random.nextInt(m_worldSize));
+            m_retargetNext = (m_retargetNext + 1) % size;
+        }
+        m_world.tick();
+        m_tick++;
+        CheckpointWriter checkpointWriter = m_checkpointWriter;
+        if (checkpointWriter != null) {
+            checkpointWriter.onTick(m_world, m_tick);
+        }
+        synchronized (m_snapshotLock) {
+            if (!m_frontDrawn) {
+                return;
+            }
+        }
+        Snapshot back = m_back;
+        m_world.copyColumns(back.m_positionX, back.m_positionY, back.m_direction, back.m_targetX, back.m_targetY);
+        synchronized (m_snapshotLock) {
+            m_back = m_front;
+            m_front = back;
+            m_frontDrawn = false;
+        }
+        m_redraw.requestRedraw();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Snapshot front;
+        synchronized (m_snapshotLock) {
+            front = m_front;
+        }
+        int width = Math.max(1, getWidth());
+        int height = Math.max(1, getHeight());
+        g.drawImage(m_renderer.render(front.m_positionX, front.m_positionY, front.m_direction, front.m_size,
+                width, height, m_zoom, m_originX, m_originY), 0, 0, null);
+        synchronized (m_snapshotLock) {
+            m_frontDrawn = true;
+        }
+    }
+
+    /**
+     * Копия столбцов состояния мира после такта.
+     */
+    private static final class Snapshot {
+        private final int m_size;
+        private final double[] m_positionX;
+        private final double[] m_positionY;
+        private final double[] m_direction;
+        private final int[] m_targetX;
+        private final int[] m_targetY;
+
+        private Snapshot(int size) {
+            m_size = size;
+            m_positionX = new double[size];
+            m_positionY = new double[size];
+            m_direction = new double[size];
+            m_targetX = new int[size];
+            m_targetY = new int[size];
+        }
+    }
+}
@@ -1,22 +1,22 @@
 package oop.gui;
 
 import oop.controller.GameController;
+import oop.model.PoseListener;
 import oop.model.RobotBehavior;
+import oop.model.RobotPose;
 
 import java.awt.Color;
-import java.awt.EventQueue;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.Observable;
-import java.util.Observer;
 
 import javax.swing.JPanel;
 
-public class TestVisualizer extends JPanel implements Observer {
+public class TestVisualizer extends JPanel implements PoseListener {
     private final GameController m_controller;
+    private final RedrawCoordinator.Handle m_redraw = RedrawCoordinator.getInstance().register(this::repaint);
     private volatile double m_robotPositionX = 100;
     private volatile double m_robotPositionY = 100;
     private volatile double m_robotDirection = 0;
@@ -24,7 +24,7 @@ public class TestVisualizer extends JPanel implements Observer {
     private volatile int m_targetPositionY = 100;
 
     public TestVisualizer(RobotBehavior robot) {
-        robot.addObserver(this);
+        robot.addPoseListener(this);
         m_controller = new GameController(robot);
         addMouseListener(new MouseAdapter() {
             @Override
@@ -43,7 +43,7 @@ public class TestVisualizer extends JPanel implements Observer {
     }
 
     protected void onRedrawEvent() {
-        EventQueue.invokeLater(this::repaint);
+        m_redraw.requestRedraw();
     }
 
     private static int round(double value) {
@@ -87,25 +87,18 @@ public class TestVisualizer extends JPanel implements Observer {
     }
 
     /**
-     * This method is called whenever the observed object is changed. An
-     * application calls an {@code Observable} object's
-     * {@code notifyObservers} method to have all the object's
-     * observers notified of the change.
+     * Запоминает новое положение робота и запрашивает перерисовку.
      *
-     * @param o   the observable object.
-     * @param arg an argument passed to the {@code notifyObservers}
-     *            method.
+     * @param robot Робот, положение которого изменилось.
+     * @param pose  Снимок нового положения.
      */
     @Override
-    public void update(Observable o, Object arg) {
-        if (o instanceof RobotBehavior robot)
-            if (arg.equals("Robot moved")) {
-                m_robotPositionX = robot.getM_robotPositionX();
-                m_robotPositionY = robot.getM_robotPositionY();
-                m_robotDirection = robot.getM_robotDirection();
-                m_targetPositionX = robot.getM_targetPositionX();
-                m_targetPositionY = robot.getM_targetPositionY();
-                onRedrawEvent();
-            }
+    public void onPoseChanged(RobotBehavior robot, RobotPose pose) {
+        m_robotPositionX = pose.getRobotPositionX();
+        m_robotPositionY = pose.getRobotPositionY();
+        m_robotDirection = pose.getRobotDirection();
+        m_targetPositionX = pose.getTargetPositionX();
+        m_targetPositionY = pose.getTargetPositionY();
+        onRedrawEvent();
     }
 }
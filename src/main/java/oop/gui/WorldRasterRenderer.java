@@ -0,0 +1,291 @@
+package oop.gui;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Отрисовка большого числа роботов прямо в массив пикселей изображения.
+ * <p>
+ * Кадр делится на горизонтальные полосы. Сначала роботы за один проход раскладываются
+ * по полосам, которые они задевают (сортировка подсчетом, порядок роботов сохраняется),
+ * затем полосы рисуются параллельно: каждая заливается фоном и получает своих роботов,
+ * обрезанных по своим строкам, так что потоки не пишут в одни и те же пиксели.
+ * Готовое изображение выводится на экран одним {@code drawImage}.
+ * <p>
+ * При масштабе не меньше {@link #SHAPE_ZOOM} робот копируется из изображений, которые
+ * рисует {@link GameVisualizer}, поэтому в масштабе 1:1 роботы выглядят так же, как на
+ * обычном поле. Изображения готовятся только для масштабов-степеней двойки от
+ * {@link #SHAPE_ZOOM} до {@link #MAX_SPRITE_ZOOM} и хранятся в собственном небольшом кэше
+ * отрисовщика; промежуточные и большие масштабы получаются растяжением ближайшего
+ * изображения при копировании. Так размер изображений и память под них не растут
+ * с приближением. При масштабе меньше {@link #SHAPE_ZOOM} робот рисуется квадратом цвета корпуса.
+ */
+public class WorldRasterRenderer {
+    /**
+     * Наименьший масштаб, при котором роботы рисуются целиком, а не точками.
+     */
+    public static final double SHAPE_ZOOM = 0.5;
+    /**
+     * Наибольший масштаб, в котором готовятся изображения роботов.
+     */
+    public static final double MAX_SPRITE_ZOOM = 2;
+    private static final int SPRITE_LEVELS = 3;
+    private static final int TILE_HEIGHT = 32;
+
+    private final RobotSpriteCache m_spriteCache =
+            new RobotSpriteCache(RobotSpriteCache.DEFAULT_HEADINGS, SPRITE_LEVELS);
+    private final RobotSpriteCache.Style m_style;
+    private final int m_background;
+    private BufferedImage m_image;
+    private int[] m_pixels;
+    private int[] m_screenX = new int[0];
+    private int[] m_screenY = new int[0];
+    private int[] m_headings = new int[0];
+    private int[] m_tileStarts = new int[1];
+    private int[] m_tileRobots = new int[0];
+    private int[] m_sourceOffsets = new int[0];
+
+    /**
+     * Создает отрисовщик.
+     *
+     * @param style      Стиль роботов в масштабе 1:1.
+     * @param background Цвет фона.
+     */
+    public WorldRasterRenderer(RobotSpriteCache.Style style, Color background) {
+        m_style = style;
+        m_background = background.getRGB();
+    }
+
+    /**
+     * Рисует роботов в изображение заданного размера. Изображение переиспользуется
+     * между кадрами, пока размер не меняется. Вызывается из одного потока.
+     *
+     * @param positionX Позиции роботов по оси X.
+     * @param positionY Позиции роботов по оси Y.
+     * @param direction Направления роботов.
+     * @param size      Число роботов.
+     * @param width     Ширина изображения.
+     * @param height    Высота изображения.
+     * @param zoom      Масштаб: число пикселей на единицу мира.
+     * @param originX   Координата X мира в левом верхнем углу изображения.
+     * @param originY   Координата Y мира в левом верхнем углу изображения.
+     * @return Изображение кадра.
+     */
+    public BufferedImage render(double[] positionX, double[] positionY, double[] direction, int size,
+                                int width, int height, double zoom, double originX, double originY) {
+        if (m_image == null || m_image.getWidth() != width || m_image.getHeight() != height) {
+            m_image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            m_pixels = ((DataBufferInt) m_image.getRaster().getDataBuffer()).getData();
+        }
+        int[][] sprites = null;
+        int origin;
+        int spriteSide = 0;
+        if (zoom >= SHAPE_ZOOM) {
+            double spriteZoom = spriteZoom(zoom);
+            RobotSpriteCache.Sprites cached = m_spriteCache.getSprites(scaledStyle(spriteZoom), null);
+            sprites = cached.getPixels();
+            spriteSide = 2 * cached.getOrigin() + 1;
+            origin = (int) Math.round(cached.getOrigin() * zoom / spriteZoom);
+            prepareSourceOffsets(2 * origin + 1, spriteSide);
+            project(cached, positionX, positionY, direction, size, zoom, originX, originY);
+        } else {
+            origin = dotSize(zoom) / 2;
+            project(null, positionX, positionY, direction, size, zoom, originX, originY);
+        }
+        int tiles = (height + TILE_HEIGHT - 1) / TILE_HEIGHT;
+        binByTile(size, tiles, width, height, origin);
+        int[][] tileSprites = sprites;
+        int tileSpriteSide = spriteSide;
+        int dotSize = dotSize(zoom);
+        IntStream.range(0, tiles).parallel().forEach(tile ->
+                drawTile(tile, width, height, tileSprites, tileSpriteSide, origin, dotSize));
+        return m_image;
+    }
+
+    /**
+     * Возвращает ближайший к масштабу масштаб изображений: степень двойки
+     * от {@link #SHAPE_ZOOM} до {@link #MAX_SPRITE_ZOOM}.
+     */
+    private static double spriteZoom(double zoom) {
+        double level = Math.pow(2, Math.round(Math.log(zoom) / Math.log(2)));
+        return Math.max(SHAPE_ZOOM, Math.min(MAX_SPRITE_ZOOM, level));
+    }
+
+    /**
+     * Заполняет таблицу, по которой смещение в растянутом изображении переводится
+     * в смещение в исходном.
+     */
+    private void prepareSourceOffsets(int side, int spriteSide) {
+        if (m_sourceOffsets.length < side) {
+            m_sourceOffsets = new int[side];
+        }
+        for (int i = 0; i < side; i++) {
+            m_sourceOffsets[i] = i * spriteSide / side;
+        }
+    }
+
+    private RobotSpriteCache.Style scaledStyle(double zoom) {
+        if (zoom == 1) {
+            return m_style;
+        }
+        return new RobotSpriteCache.Style(Math.max(1, (int) Math.round(m_style.length() * zoom)),
+                Math.max(1, (int) Math.round(m_style.width() * zoom)),
+                m_style.body(), m_style.outline(), m_style.eye());
+    }
+
+    private int dotSize(double zoom) {
+        return Math.max(1, (int) Math.round(m_style.width() * zoom));
+    }
+
+    private void project(RobotSpriteCache.Sprites sprites, double[] positionX, double[] positionY,
+                         double[] direction, int size, double zoom, double originX, double originY) {
+        if (m_screenX.length < size) {
+            m_screenX = new int[size];
+            m_screenY = new int[size];
+            m_headings = new int[size];
+        }
+        for (int i = 0; i < size; i++) {
+            m_screenX[i] = (int) Math.floor((positionX[i] - originX) * zoom + 0.5);
+            m_screenY[i] = (int) Math.floor((positionY[i] - originY) * zoom + 0.5);
+            m_headings[i] = sprites == null ? 0 : sprites.headingOf(direction[i]);
+        }
+    }
+
+    /**
+     * Раскладывает роботов по полосам, которые задевает их изображение.
+     */
+    private void binByTile(int size, int tiles, int width, int height, int origin) {
+        if (m_tileStarts.length < tiles + 1) {
+            m_tileStarts = new int[tiles + 1];
+        }
+        int[] starts = m_tileStarts;
+        Arrays.fill(starts, 0, tiles + 1, 0);
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            int x = m_screenX[i];
+            int y = m_screenY[i];
+            if (x + origin < 0 || x - origin >= width || y + origin < 0 || y - origin >= height) {
+                continue;
+            }
+            int from = Math.max(0, (y - origin) / TILE_HEIGHT);
+            int to = Math.min(tiles - 1, (y + origin) / TILE_HEIGHT);
+            for (int tile = from; tile <= to; tile++) {
+                starts[tile + 1]++;
+            }
+            total += to - from + 1;
+        }
+        for (int tile = 0; tile < tiles; tile++) {
+            starts[tile + 1] += starts[tile];
+        }
+        if (m_tileRobots.length < total) {
+            m_tileRobots = new int[total];
+        }
+        int[] next = Arrays.copyOf(starts, tiles);
+        for (int i = 0; i < size; i++) {
+            int x = m_screenX[i];
+            int y = m_screenY[i];
+            if (x + origin < 0 || x - origin >= width || y + origin < 0 || y - origin >= height) {
+                continue;
+            }
+            int from = Math.max(0, (y - origin) / TILE_HEIGHT);
+            int to = Math.min(tiles - 1, (y + origin) / TILE_HEIGHT);
+            for (int tile = from; tile <= to; tile++) {
+                m_tileRobots[next[tile]++] = i;
+            }
+        }
+    }
+
+    private void drawTile(int tile, int width, int height, int[][] sprites, int spriteSide, int origin,
+                          int dotSize) {
+        int rowFrom = tile * TILE_HEIGHT;
+        int rowTo = Math.min(height, rowFrom + TILE_HEIGHT);
+        int[] pixels = m_pixels;
+        Arrays.fill(pixels, rowFrom * width, rowTo * width, m_background);
+        int body = m_style.body().getRGB();
+        for (int k = m_tileStarts[tile]; k < m_tileStarts[tile + 1]; k++) {
+            int robot = m_tileRobots[k];
+            int left = m_screenX[robot] - origin;
+            int top = m_screenY[robot] - origin;
+            if (sprites == null) {
+                fillRect(pixels, width, rowFrom, rowTo, left, top, dotSize, body);
+            } else if (spriteSide == 2 * origin + 1) {
+                blit(pixels, width, rowFrom, rowTo, sprites[m_headings[robot]], spriteSide, left, top);
+            } else {
+                blitScaled(pixels, width, rowFrom, rowTo, sprites[m_headings[robot]], spriteSide,
+                        m_sourceOffsets, 2 * origin + 1, left, top);
+            }
+        }
+    }
+
+    private static void fillRect(int[] pixels, int width, int rowFrom, int rowTo, int left, int top, int side,
+                                 int color) {
+        int fromY = Math.max(rowFrom, top);
+        int toY = Math.min(rowTo, top + side);
+        int fromX = Math.max(0, left);
+        int toX = Math.min(width, left + side);
+        for (int y = fromY; y < toY; y++) {
+            Arrays.fill(pixels, y * width + fromX, y * width + toX, color);
+        }
+    }
+
+    /**
+     * Копирует изображение робота в строки полосы: непрозрачные пиксели переносятся
+     * как есть, полупрозрачные смешиваются с фоном, прозрачные пропускаются.
+     */
+    private static void blit(int[] pixels, int width, int rowFrom, int rowTo, int[] sprite, int side,
+                             int left, int top) {
+        int fromY = Math.max(rowFrom, top);
+        int toY = Math.min(rowTo, top + side);
+        int fromX = Math.max(0, left);
+        int toX = Math.min(width, left + side);
+        for (int y = fromY; y < toY; y++) {
+            int source = (y - top) * side - left;
+            int target = y * width;
+            for (int x = fromX; x < toX; x++) {
+                int color = sprite[source + x];
+                int alpha = color >>> 24;
+                if (alpha == 255) {
+                    pixels[target + x] = color;
+                } else if (alpha != 0) {
+                    pixels[target + x] = blend(color, pixels[target + x], alpha);
+                }
+            }
+        }
+    }
+
+    /**
+     * Копирует изображение робота, растягивая или сжимая его до стороны {@code side}:
+     * каждый пиксель берется из ближайшего слева сверху пикселя исходного изображения.
+     */
+    private static void blitScaled(int[] pixels, int width, int rowFrom, int rowTo, int[] sprite,
+                                   int spriteSide, int[] sourceOffsets, int side, int left, int top) {
+        int fromY = Math.max(rowFrom, top);
+        int toY = Math.min(rowTo, top + side);
+        int fromX = Math.max(0, left);
+        int toX = Math.min(width, left + side);
+        for (int y = fromY; y < toY; y++) {
+            int source = sourceOffsets[y - top] * spriteSide;
+            int target = y * width;
+            for (int x = fromX; x < toX; x++) {
+                int color = sprite[source + sourceOffsets[x - left]];
+                int alpha = color >>> 24;
+                if (alpha == 255) {
+                    pixels[target + x] = color;
+                } else if (alpha != 0) {
+                    pixels[target + x] = blend(color, pixels[target + x], alpha);
+                }
+            }
+        }
+    }
+
+    private static int blend(int color, int background, int alpha) {
+        int inverse = 255 - alpha;
+        int red = (((color >> 16) & 0xFF) * alpha + ((background >> 16) & 0xFF) * inverse) / 255;
+        int green = (((color >> 8) & 0xFF) * alpha + ((background >> 8) & 0xFF) * inverse) / 255;
+        int blue = ((color & 0xFF) * alpha + (background & 0xFF) * inverse) / 255;
+        return (red << 16) | (green << 8) | blue;
+    }
+}
@@ -8,6 +8,7 @@ import static java.lang.Math.min;
 /**
  * Циклическая очередь, которая использует буфер фиксированного размера для хранения элементов.
  * Когда буфер заполняется, новые элементы перезаписывают самые старые элементы.
+ * Лог использует {@link RingBuffer}; очередь оставлена как базовая реализация для сравнения.
  *
  * @param <T> тип элементов, хранящихся в очереди
  */
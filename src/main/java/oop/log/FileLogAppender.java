@@ -0,0 +1,361 @@
+package oop.log;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Асинхронная запись протокола в файл с ротацией по размеру и времени.
+ * <p>
+ * Поток, пишущий в лог, только кладет сообщение в кольцевой буфер источника;
+ * фоновый поток записи читает буфер по номерам сообщений, кодирует пачку строк
+ * в буфер и дописывает ее в файл через {@link FileChannel}. Поток записи будит
+ * уведомление источника или, если запись отстала на половину очереди, сам пишущий поток;
+ * без сообщений поток записи просыпается раз в {@link #IDLE_CHECK_NANOS},
+ * чтобы вовремя сменить файл по времени.
+ * <p>
+ * Очередью записи служит сам буфер источника: запись может отставать от источника
+ * не больше чем на емкость очереди. Если отставание больше, поведение задает
+ * {@link OverflowPolicy}: при {@link OverflowPolicy#DROP} вытесненные сообщения
+ * теряются, и в файл пишется строка с их числом, а при {@link OverflowPolicy#BLOCK}
+ * добавление сообщения ждет, пока запись не догонит источник. Емкость очереди
+ * при {@link OverflowPolicy#BLOCK} стоит брать меньше емкости источника с запасом
+ * на число одновременно пишущих потоков.
+ * <p>
+ * Когда размер файла превышает заданный или файл открыт дольше заданного времени,
+ * он переименовывается с отметкой времени в имени, и запись продолжается в новый файл.
+ */
+public class FileLogAppender implements Closeable, LogChangeListener {
+    /**
+     * Поведение при переполнении очереди записи.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Не ждать записи; не успевшие записаться сообщения теряются.
+         */
+        DROP,
+        /**
+         * Задерживать добавление сообщений, пока запись не догонит источник.
+         */
+        BLOCK
+    }
+
+    private static final long IDLE_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long BLOCK_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int PUBLISH_PERIOD = 1024;
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter ROLL_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneId.systemDefault());
+
+    private final LogWindowSource m_source;
+    private final RingBuffer<LogEntry> m_messages;
+    private final File m_file;
+    private final long m_maxFileBytes;
+    private final long m_maxFileAgeMillis;
+    private final int m_queueCapacity;
+    private final boolean m_blocking;
+    private final Thread m_writer;
+    private final AtomicLong m_written = new AtomicLong();
+    private final AtomicLong m_dropped = new AtomicLong();
+    private final AtomicLong m_blocked = new AtomicLong();
+    private final ByteBuffer m_buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CharsetEncoder m_encoder = StandardCharsets.UTF_8.newEncoder();
+    private final StringBuilder m_line = new StringBuilder();
+    private ByteBuffer m_lineBuffer = ByteBuffer.allocate(1024);
+    private volatile long m_nextSequence;
+    private volatile boolean m_wakeRequested;
+    private volatile boolean m_closed;
+    private FileChannel m_channel;
+    private long m_fileSize;
+    private long m_fileOpenedAt;
+    private long m_pendingLost;
+    private boolean m_failing;
+
+    /**
+     * Создает запись в файл и запускает поток записи. Записываются сообщения,
+     * добавленные в источник после создания.
+     *
+     * @param source           Источник сообщений.
+     * @param file             Файл протокола; если он есть, запись продолжается в его конец.
+     * @param maxFileBytes     Размер файла, после которого он сменяется.
+     * @param maxFileAgeMillis Время, после которого файл сменяется, или ноль, чтобы не сменять по времени.
+     * @param queueCapacity    Наибольшее отставание записи от источника в сообщениях.
+     * @param policy           Поведение при переполнении очереди.
+     * @throws IOException Если файл не удалось открыть.
+     */
+    public FileLogAppender(LogWindowSource source, File file, long maxFileBytes, long maxFileAgeMillis,
+                           int queueCapacity, OverflowPolicy policy) throws IOException {
+        if (maxFileBytes <= 0 || maxFileAgeMillis < 0) {
+            throw new IllegalArgumentException("Размер файла должен быть положительным, а время — неотрицательным");
+        }
+        m_messages = source.getMessages();
+        if (queueCapacity <= 0 || queueCapacity > m_messages.getCapacity()) {
+            throw new IllegalArgumentException("Емкость очереди должна быть от 1 до емкости источника: "
+                    + queueCapacity);
+        }
+        m_source = source;
+        m_file = file;
+        m_maxFileBytes = maxFileBytes;
+        m_maxFileAgeMillis = maxFileAgeMillis;
+        m_queueCapacity = queueCapacity;
+        m_blocking = policy == OverflowPolicy.BLOCK;
+        openFile();
+        m_nextSequence = m_messages.getNextSequence();
+        m_writer = new Thread(this::runWriter, "log writer");
+        m_writer.setDaemon(true);
+        m_writer.start();
+        source.registerListener(this);
+        source.addAppender(this);
+    }
+
+    @Override
+    public void onLogChanged() {
+        LockSupport.unpark(m_writer);
+    }
+
+    /**
+     * Вызывается источником перед добавлением сообщения: если запись отстала
+     * на половину очереди, будит поток записи, а при {@link OverflowPolicy#BLOCK}
+     * и заполненной очереди ждет, пока отставание не станет меньше ее емкости.
+     */
+    void beforeAppend() {
+        long lag = m_messages.getNextSequence() - m_nextSequence;
+        if (lag < m_queueCapacity / 2 || Thread.currentThread() == m_writer) {
+            return;
+        }
+        if (!m_wakeRequested) {
+            m_wakeRequested = true;
+            LockSupport.unpark(m_writer);
+        }
+        if (!m_blocking || lag < m_queueCapacity) {
+            return;
+        }
+        m_blocked.incrementAndGet();
+        LockSupport.unpark(m_writer);
+        while (!m_closed && m_messages.getNextSequence() - m_nextSequence >= m_queueCapacity) {
+            LockSupport.parkNanos(this, BLOCK_WAIT_NANOS);
+        }
+    }
+
+    /**
+     * Возвращает число записанных в файл сообщений.
+     *
+     * @return Число сообщений.
+     */
+    public long getWritten() {
+        return m_written.get();
+    }
+
+    /**
+     * Возвращает число сообщений, вытесненных из источника до записи.
+     *
+     * @return Число потерянных сообщений.
+     */
+    public long getDropped() {
+        return m_dropped.get();
+    }
+
+    /**
+     * Возвращает число случаев, когда добавление сообщения ждало записи.
+     *
+     * @return Число ожиданий.
+     */
+    public long getBlocked() {
+        return m_blocked.get();
+    }
+
+    /**
+     * Дописывает накопленные сообщения, останавливает поток записи и закрывает файл.
+     */
+    @Override
+    public void close() {
+        if (m_closed) {
+            return;
+        }
+        m_closed = true;
+        m_source.removeAppender(this);
+        m_source.unregisterListener(this);
+        LockSupport.unpark(m_writer);
+        try {
+            m_writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWriter() {
+        while (true) {
+            boolean closing = m_closed;
+            m_wakeRequested = false;
+            try {
+                drain();
+                if (m_maxFileAgeMillis > 0 && m_fileSize > 0
+                        && System.currentTimeMillis() - m_fileOpenedAt >= m_maxFileAgeMillis) {
+                    rollFile();
+                }
+                m_failing = false;
+            } catch (IOException e) {
+                if (!m_failing) {
+                    m_failing = true;
+                    Logger.error("Не удалось записать протокол в файл: {}", e.getMessage());
+                }
+            }
+            if (closing) {
+                break;
+            }
+            LockSupport.parkNanos(this, IDLE_CHECK_NANOS);
+        }
+        try {
+            m_channel.force(false);
+            m_channel.close();
+        } catch (IOException e) {
+            System.err.println("Не удалось закрыть файл протокола: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Записывает все опубликованные сообщения. Вытесненные до записи сообщения
+     * обнаруживаются по номерам и заменяются строкой с их числом.
+     */
+    private void drain() throws IOException {
+        long sequence = m_nextSequence;
+        long next = m_messages.getPublishedSequence();
+        long written = 0;
+        while (sequence < next) {
+            long oldest = m_messages.getOldestSequence();
+            if (sequence < oldest) {
+                m_pendingLost += oldest - sequence;
+                sequence = oldest;
+                continue;
+            }
+            LogEntry entry = m_messages.get(sequence);
+            if (entry == null) {
+                if (sequence < m_messages.getOldestSequence()) {
+                    continue;
+                }
+                break;
+            }
+            if (m_pendingLost > 0) {
+                m_dropped.addAndGet(m_pendingLost);
+                writeLost(entry.getTime(), m_pendingLost);
+                m_pendingLost = 0;
+            }
+            writeEntry(entry);
+            written++;
+            sequence++;
+            if (sequence % PUBLISH_PERIOD == 0) {
+                m_nextSequence = sequence;
+            }
+        }
+        m_nextSequence = sequence;
+        flush();
+        m_written.addAndGet(written);
+    }
+
+    private void writeEntry(LogEntry entry) throws IOException {
+        StringBuilder line = m_line;
+        line.setLength(0);
+        TIME_FORMAT.formatTo(Instant.ofEpochMilli(entry.getTime()), line);
+        line.append(' ').append(entry.getLevel()).append(' ').append(entry.getMessage()).append('\n');
+        writeLine(line);
+    }
+
+    private void writeLost(long time, long count) throws IOException {
+        StringBuilder line = m_line;
+        line.setLength(0);
+        TIME_FORMAT.formatTo(Instant.ofEpochMilli(time), line);
+        line.append(" Warning Пропущено сообщений: ").append(count).append('\n');
+        writeLine(line);
+    }
+
+    /**
+     * Кодирует строку целиком и кладет ее в буфер, так что при смене файла
+     * строки не разрываются.
+     */
+    private void writeLine(CharSequence line) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(line);
+        m_lineBuffer.clear();
+        m_encoder.reset();
+        while (true) {
+            CoderResult result = m_encoder.encode(chars, m_lineBuffer, true);
+            if (result.isOverflow()) {
+                ByteBuffer larger = ByteBuffer.allocate(m_lineBuffer.capacity() * 2);
+                m_lineBuffer.flip();
+                larger.put(m_lineBuffer);
+                m_lineBuffer = larger;
+            } else {
+                break;
+            }
+        }
+        m_lineBuffer.flip();
+        if (m_buffer.remaining() < m_lineBuffer.remaining()) {
+            flush();
+        }
+        if (m_lineBuffer.remaining() > m_buffer.capacity()) {
+            writeToFile(m_lineBuffer);
+        } else {
+            m_buffer.put(m_lineBuffer);
+        }
+    }
+
+    private void flush() throws IOException {
+        m_buffer.flip();
+        try {
+            if (m_buffer.hasRemaining()) {
+                writeToFile(m_buffer);
+            }
+        } finally {
+            m_buffer.clear();
+        }
+    }
+
+    private void writeToFile(ByteBuffer bytes) throws IOException {
+        if (m_fileSize > 0 && m_fileSize + bytes.remaining() > m_maxFileBytes) {
+            rollFile();
+        }
+        while (bytes.hasRemaining()) {
+            m_fileSize += m_channel.write(bytes);
+        }
+    }
+
+    private void openFile() throws IOException {
+        m_channel = FileChannel.open(m_file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        m_fileSize = m_channel.size();
+        m_fileOpenedAt = System.currentTimeMillis();
+    }
+
+    private void rollFile() throws IOException {
+        m_channel.close();
+        String name = m_file.getName();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        String stamp = ROLL_FORMAT.format(Instant.now());
+        File rolled = new File(m_file.getParentFile(), base + "-" + stamp + extension);
+        for (int i = 1; rolled.exists(); i++) {
+            rolled = new File(m_file.getParentFile(), base + "-" + stamp + "-" + i + extension);
+        }
+        try {
+            Files.move(m_file.toPath(), rolled.toPath());
+        } finally {
+            openFile();
+        }
+    }
+}
@@ -2,4 +2,16 @@ package oop.log;
 
 public interface LogChangeListener {
     public void onLogChanged();
+
+    /**
+     * Сообщает о пачке новых сообщений. Вызывается потоком уведомлений источника
+     * не чаще одного раза за интервал уведомлений; реализация по умолчанию
+     * вызывает {@link #onLogChanged()}.
+     *
+     * @param from Номер первого нового сообщения.
+     * @param to   Номер, следующий за последним новым сообщением.
+     */
+    default void onLogChanged(long from, long to) {
+        onLogChanged();
+    }
 }
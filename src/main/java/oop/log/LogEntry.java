@@ -1,20 +1,114 @@
 package oop.log;
 
+import java.util.function.Supplier;
+
+/**
+ * Сообщение протокола. Текст может быть задан готовой строкой, поставщиком или шаблоном
+ * с аргументами; в двух последних случаях он строится при первом вызове {@link #getMessage()},
+ * то есть когда сообщение показывается или пишется в файл, а не в потоке, который его добавил.
+ * Поэтому аргументы шаблона не должны меняться после добавления сообщения.
+ */
 public class LogEntry {
+    private static final String PLACEHOLDER = "{}";
+
     private LogLevel m_logLevel;
     private String m_strMessage;
+    private final long m_time;
+    private String m_template;
+    private Object[] m_args;
+    private Supplier<String> m_supplier;
 
     public LogEntry(LogLevel logLevel, String strMessage) {
         m_strMessage = strMessage;
         m_logLevel = logLevel;
+        m_time = System.currentTimeMillis();
     }
 
-    public String getMessage() {
+    /**
+     * Создает сообщение, текст которого вычисляется поставщиком при первом обращении.
+     *
+     * @param logLevel Уровень сообщения.
+     * @param supplier Поставщик текста.
+     */
+    public LogEntry(LogLevel logLevel, Supplier<String> supplier) {
+        m_logLevel = logLevel;
+        m_supplier = supplier;
+        m_time = System.currentTimeMillis();
+    }
+
+    /**
+     * Создает сообщение по шаблону, в котором каждое {@code {}} по порядку заменяется
+     * очередным аргументом. Текст строится при первом обращении.
+     *
+     * @param logLevel Уровень сообщения.
+     * @param template Шаблон текста.
+     * @param args     Аргументы шаблона.
+     */
+    public LogEntry(LogLevel logLevel, String template, Object... args) {
+        m_logLevel = logLevel;
+        m_template = template;
+        m_args = args;
+        m_time = System.currentTimeMillis();
+    }
+
+    /**
+     * Возвращает текст сообщения, при необходимости строя его. После построения
+     * шаблон, аргументы и поставщик отпускаются.
+     *
+     * @return Текст сообщения.
+     */
+    public synchronized String getMessage() {
+        if (m_strMessage == null) {
+            try {
+                m_strMessage = m_supplier != null ? m_supplier.get() : format(m_template, m_args);
+            } catch (RuntimeException e) {
+                m_strMessage = "Не удалось построить сообщение: " + e;
+            }
+            m_supplier = null;
+            m_template = null;
+            m_args = null;
+        }
         return m_strMessage;
     }
 
     public LogLevel getLevel() {
         return m_logLevel;
     }
-}
 
+    /**
+     * Возвращает время создания сообщения.
+     *
+     * @return Время в миллисекундах с начала эпохи.
+     */
+    public long getTime() {
+        return m_time;
+    }
+
+    /**
+     * Подставляет аргументы в шаблон. Лишние аргументы отбрасываются,
+     * а {@code {}} без аргумента остаются как есть.
+     *
+     * @param template Шаблон текста.
+     * @param args     Аргументы шаблона.
+     * @return Текст сообщения.
+     */
+    public static String format(String template, Object... args) {
+        if (template == null) {
+            return "null";
+        }
+        if (args == null || args.length == 0) {
+            return template;
+        }
+        StringBuilder result = new StringBuilder(template.length() + 16 * args.length);
+        int from = 0;
+        for (Object arg : args) {
+            int placeholder = template.indexOf(PLACEHOLDER, from);
+            if (placeholder < 0) {
+                break;
+            }
+            result.append(template, from, placeholder).append(arg);
+            from = placeholder + PLACEHOLDER.length();
+        }
+        return result.append(template, from, template.length()).toString();
+    }
+}
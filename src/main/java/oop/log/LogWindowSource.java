@@ -2,8 +2,12 @@ package oop.log;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Что починить:
@@ -13,25 +17,80 @@ import java.util.List;
  * их лишь накапливает. Надо же, чтобы количество сообщений в логе было ограничено
  * величиной m_iQueueLength (т.е. реально нужна очередь сообщений
  * ограниченного размера)
+ * <p>
+ * Слушатели уведомляются не в потоке, который пишет в лог, а отдельным потоком
+ * уведомлений: запись сообщения только выставляет флаг и при необходимости будит
+ * этот поток, а он вызывает слушателей не чаще одного раза за интервал уведомлений
+ * и передает диапазон номеров сообщений, появившихся с прошлого уведомления.
+ * Поток создается при регистрации первого слушателя и завершается сам,
+ * когда источник становится недостижим.
  */
 public class LogWindowSource {
+    /**
+     * Интервал уведомлений слушателей по умолчанию.
+     */
+    public static final long DEFAULT_NOTIFICATION_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(16);
     private int m_iQueueLength;
 
     // private ArrayList<LogEntry> m_messages;
-    private final CircularQueue<LogEntry> m_messages;
+    private final RingBuffer<LogEntry> m_messages;
     private final ArrayList<WeakReference<LogChangeListener>> m_listeners;
     private volatile LogChangeListener[] m_activeListeners;
+    private volatile FileLogAppender[] m_appenders = new FileLogAppender[0];
+    private final AtomicBoolean m_notificationPending = new AtomicBoolean();
+    private volatile long m_notificationIntervalNanos;
+    private volatile Thread m_notifier;
+    private long m_notifiedUpTo;
 
     public LogWindowSource(int iQueueLength) {
+        this(iQueueLength, DEFAULT_NOTIFICATION_INTERVAL_NANOS);
+    }
+
+    /**
+     * Создает источник с заданным интервалом уведомлений.
+     *
+     * @param iQueueLength              Число хранимых сообщений.
+     * @param notificationIntervalNanos Наименьший интервал между уведомлениями слушателей.
+     */
+    public LogWindowSource(int iQueueLength, long notificationIntervalNanos) {
         m_iQueueLength = iQueueLength;
-        m_messages = new CircularQueue<>(m_iQueueLength);
+        m_messages = new RingBuffer<>(m_iQueueLength);
         m_listeners = new ArrayList<>();
+        setNotificationInterval(notificationIntervalNanos);
+    }
+
+    /**
+     * Задает наименьший интервал между уведомлениями слушателей.
+     *
+     * @param nanos Интервал в наносекундах; ноль уведомляет сразу после записи.
+     */
+    public void setNotificationInterval(long nanos) {
+        if (nanos < 0) {
+            throw new IllegalArgumentException("Notification interval must not be negative: " + nanos);
+        }
+        m_notificationIntervalNanos = nanos;
+    }
+
+    /**
+     * Возвращает наименьший интервал между уведомлениями слушателей.
+     *
+     * @return Интервал в наносекундах.
+     */
+    public long getNotificationInterval() {
+        return m_notificationIntervalNanos;
     }
 
     public void registerListener(LogChangeListener listener) {
         synchronized (m_listeners) {
             m_listeners.add(new WeakReference<>(listener));
             m_activeListeners = null;
+            if (m_notifier == null) {
+                m_notifiedUpTo = m_messages.getPublishedSequence();
+                Thread notifier = new Thread(new Notifier(this), "log notifier");
+                notifier.setDaemon(true);
+                m_notifier = notifier;
+                notifier.start();
+            }
         }
     }
 
@@ -50,8 +109,59 @@ public class LogWindowSource {
     }
 
     public void append(LogLevel logLevel, String strMessage) {
-        LogEntry entry = new LogEntry(logLevel, strMessage);
+        append(new LogEntry(logLevel, strMessage));
+    }
+
+    /**
+     * Добавляет готовое сообщение, например с отложенным построением текста.
+     *
+     * @param entry Сообщение.
+     */
+    public void append(LogEntry entry) {
+        for (FileLogAppender appender : m_appenders) {
+            appender.beforeAppend();
+        }
         m_messages.put(entry);
+        if (!m_notificationPending.get() && m_notificationPending.compareAndSet(false, true)) {
+            Thread notifier = m_notifier;
+            if (notifier != null) {
+                LockSupport.unpark(notifier);
+            }
+        }
+    }
+
+    /**
+     * Добавляет запись в файл, которая перед каждым добавлением сообщения
+     * проверяет свое отставание от источника.
+     */
+    void addAppender(FileLogAppender appender) {
+        synchronized (m_listeners) {
+            FileLogAppender[] appenders = Arrays.copyOf(m_appenders, m_appenders.length + 1);
+            appenders[appenders.length - 1] = appender;
+            m_appenders = appenders;
+        }
+    }
+
+    void removeAppender(FileLogAppender appender) {
+        synchronized (m_listeners) {
+            List<FileLogAppender> appenders = new ArrayList<>(Arrays.asList(m_appenders));
+            appenders.remove(appender);
+            m_appenders = appenders.toArray(new FileLogAppender[0]);
+        }
+    }
+
+    /**
+     * Уведомляет слушателей о сообщениях, появившихся с прошлого уведомления.
+     * Вызывается только потоком уведомлений.
+     */
+    private void notifyListeners() {
+        m_notificationPending.set(false);
+        long from = m_notifiedUpTo;
+        long to = m_messages.getPublishedSequence();
+        if (to <= from) {
+            return;
+        }
+        m_notifiedUpTo = to;
         LogChangeListener[] activeListeners = m_activeListeners;
         if (activeListeners == null) {
             synchronized (m_listeners) {
@@ -69,7 +179,11 @@ public class LogWindowSource {
             }
         }
         for (LogChangeListener listener : activeListeners) {
-            listener.onLogChanged();
+            try {
+                listener.onLogChanged(from, to);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
         }
     }
 
@@ -78,14 +192,61 @@ public class LogWindowSource {
     }
 
     public Iterable<LogEntry> range(int startFrom, int count) {
-        if (startFrom < 0 || startFrom >= m_messages.size()) {
+        if (startFrom < 0 || count <= 0) {
             return Collections.emptyList();
         }
-        int indexTo = Math.min(startFrom + count, m_messages.size());
-        return m_messages.subList(startFrom, indexTo);
+        long first = m_messages.getOldestSequence() + startFrom;
+        return m_messages.snapshot(first, first + count);
     }
 
     public Iterable<LogEntry> all() {
-        return range(0, m_messages.size());
+        long next = m_messages.getPublishedSequence();
+        return m_messages.snapshot(next - m_iQueueLength, next);
+    }
+
+    /**
+     * Возвращает буфер сообщений, в котором у каждого сообщения есть постоянный номер.
+     *
+     * @return Буфер сообщений.
+     */
+    public RingBuffer<LogEntry> getMessages() {
+        return m_messages;
+    }
+
+    /**
+     * Поток уведомлений. Держит источник по слабой ссылке, чтобы не мешать его сборке.
+     */
+    private static final class Notifier implements Runnable {
+        private static final long IDLE_CHECK_NANOS = TimeUnit.SECONDS.toNanos(1);
+        private final WeakReference<LogWindowSource> m_source;
+
+        private Notifier(LogWindowSource source) {
+            m_source = new WeakReference<>(source);
+        }
+
+        @Override
+        public void run() {
+            long lastNotification = System.nanoTime() - IDLE_CHECK_NANOS;
+            while (true) {
+                long wait;
+                LogWindowSource source = m_source.get();
+                if (source == null) {
+                    return;
+                }
+                if (!source.m_notificationPending.get()) {
+                    wait = IDLE_CHECK_NANOS;
+                } else {
+                    long now = System.nanoTime();
+                    wait = lastNotification + source.m_notificationIntervalNanos - now;
+                    if (wait <= 0) {
+                        lastNotification = now;
+                        source.notifyListeners();
+                        continue;
+                    }
+                }
+                source = null;
+                LockSupport.parkNanos(this, wait);
+            }
+        }
     }
 }
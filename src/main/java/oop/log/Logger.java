@@ -1,21 +1,365 @@
 package oop.log;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Протокол приложения. Число хранимых сообщений задается системным свойством
+ * {@value #CAPACITY_PROPERTY}; окно протокола отрисовывает только видимые строки,
+ * поэтому емкость может достигать миллионов сообщений.
+ * <p>
+ * Если задано свойство {@value #FILE_PROPERTY}, протокол также асинхронно пишется
+ * в этот файл через {@link FileLogAppender}. Файл сменяется по достижении размера
+ * {@value #FILE_SIZE_PROPERTY} (байты, по умолчанию 10 МиБ) и через
+ * {@value #FILE_AGE_PROPERTY} минут (по умолчанию сутки, ноль — не сменять по времени);
+ * {@value #FILE_POLICY_PROPERTY} задает поведение при переполнении очереди записи:
+ * {@code drop} (по умолчанию) или {@code block}.
+ * <p>
+ * Сообщения ниже порога уровня отбрасываются; порог задается свойством
+ * {@value #LEVEL_PROPERTY} (имя уровня, по умолчанию {@code Debug}) и меняется
+ * во время работы через {@link #setLevel(LogLevel)}. Проверка порога — одно чтение
+ * и сравнение; поставщик и шаблон вычисляются только при показе или записи сообщения.
+ * Выключенный вызов с готовой строкой или шаблоном с аргументами-объектами ничего
+ * не выделяет; для шаблонов есть перегрузки с одним, двумя и тремя аргументами,
+ * чтобы не создавать массив. Захватывающий поставщик, упаковку аргументов-примитивов
+ * и массив аргументов убирает анализ убегания после встраивания вызова, а до него
+ * на горячем пути стоит проверять {@link #isEnabled(LogLevel)}.
+ */
 public final class Logger {
+    /**
+     * Системное свойство с числом хранимых сообщений.
+     */
+    public static final String CAPACITY_PROPERTY = "robots.log.capacity";
+    /**
+     * Системное свойство с путем к файлу протокола.
+     */
+    public static final String FILE_PROPERTY = "robots.log.file";
+    /**
+     * Системное свойство с размером, после которого файл протокола сменяется.
+     */
+    public static final String FILE_SIZE_PROPERTY = "robots.log.file.size";
+    /**
+     * Системное свойство со временем в минутах, после которого файл протокола сменяется.
+     */
+    public static final String FILE_AGE_PROPERTY = "robots.log.file.age";
+    /**
+     * Системное свойство с поведением при переполнении очереди записи в файл.
+     */
+    public static final String FILE_POLICY_PROPERTY = "robots.log.file.policy";
+    /**
+     * Системное свойство с порогом уровня сообщений.
+     */
+    public static final String LEVEL_PROPERTY = "robots.log.level";
+    private static final int DEFAULT_CAPACITY = 10_000;
+    private static final long DEFAULT_FILE_SIZE = 10L * 1024 * 1024;
+    private static final long DEFAULT_FILE_AGE_MINUTES = 24 * 60;
     private static final LogWindowSource defaultLogSource;
+    private static volatile int threshold = LogLevel.Debug.level();
 
     static {
-        defaultLogSource = new LogWindowSource(100);
+        defaultLogSource = new LogWindowSource(Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY));
+        String level = System.getProperty(LEVEL_PROPERTY);
+        if (level != null) {
+            try {
+                setLevel(parseLevel(level));
+            } catch (IllegalArgumentException e) {
+                defaultLogSource.append(LogLevel.Error, "Неизвестный уровень протокола: " + level);
+            }
+        }
+        String file = System.getProperty(FILE_PROPERTY);
+        if (file != null) {
+            startFileAppender(new File(file));
+        }
     }
 
     private Logger() {
     }
 
+    private static void startFileAppender(File file) {
+        try {
+            FileLogAppender.OverflowPolicy policy = FileLogAppender.OverflowPolicy.valueOf(
+                    System.getProperty(FILE_POLICY_PROPERTY, "drop").toUpperCase(Locale.ROOT));
+            int capacity = defaultLogSource.getMessages().getCapacity();
+            int queueCapacity = policy == FileLogAppender.OverflowPolicy.BLOCK
+                    ? Math.max(1, capacity / 2) : capacity;
+            FileLogAppender appender = new FileLogAppender(defaultLogSource, file,
+                    Long.getLong(FILE_SIZE_PROPERTY, DEFAULT_FILE_SIZE),
+                    Long.getLong(FILE_AGE_PROPERTY, DEFAULT_FILE_AGE_MINUTES) * 60_000,
+                    queueCapacity, policy);
+            Runtime.getRuntime().addShutdownHook(new Thread(appender::close, "log writer shutdown"));
+        } catch (IOException | IllegalArgumentException e) {
+            defaultLogSource.append(LogLevel.Error, "Не удалось открыть файл протокола: " + e.getMessage());
+        }
+    }
+
+    private static LogLevel parseLevel(String name) {
+        for (LogLevel level : LogLevel.values()) {
+            if (level.name().equalsIgnoreCase(name.trim())) {
+                return level;
+            }
+        }
+        throw new IllegalArgumentException("Unknown log level: " + name);
+    }
+
+    /**
+     * Задает порог: сообщения с меньшим уровнем отбрасываются.
+     *
+     * @param level Наименьший записываемый уровень.
+     */
+    public static void setLevel(LogLevel level) {
+        threshold = level.level();
+    }
+
+    /**
+     * Возвращает порог уровня сообщений.
+     *
+     * @return Наименьший записываемый уровень.
+     */
+    public static LogLevel getLevel() {
+        int current = threshold;
+        for (LogLevel level : LogLevel.values()) {
+            if (level.level() == current) {
+                return level;
+            }
+        }
+        return LogLevel.Debug;
+    }
+
+    /**
+     * Проверяет, записываются ли сообщения заданного уровня.
+     *
+     * @param level Уровень сообщения.
+     * @return {@code true}, если уровень не ниже порога.
+     */
+    public static boolean isEnabled(LogLevel level) {
+        return level.level() >= threshold;
+    }
+
+    /**
+     * Добавляет сообщение, если его уровень не ниже порога.
+     *
+     * @param level      Уровень сообщения.
+     * @param strMessage Текст сообщения.
+     */
+    public static void log(LogLevel level, String strMessage) {
+        if (isEnabled(level)) {
+            defaultLogSource.append(level, strMessage);
+        }
+    }
+
+    /**
+     * Добавляет сообщение, текст которого будет получен от поставщика при показе или записи.
+     *
+     * @param level    Уровень сообщения.
+     * @param supplier Поставщик текста.
+     */
+    public static void log(LogLevel level, Supplier<String> supplier) {
+        if (isEnabled(level)) {
+            defaultLogSource.append(new LogEntry(level, supplier));
+        }
+    }
+
+    /**
+     * Добавляет сообщение по шаблону, в котором {@code {}} заменяется аргументом
+     * при показе или записи.
+     *
+     * @param level    Уровень сообщения.
+     * @param template Шаблон текста.
+     * @param arg      Аргумент шаблона.
+     */
+    public static void log(LogLevel level, String template, Object arg) {
+        if (isEnabled(level)) {
+            defaultLogSource.append(new LogEntry(level, template, arg));
+        }
+    }
+
+    /**
+     * Добавляет сообщение по шаблону с двумя аргументами.
+     *
+     * @param level    Уровень сообщения.
+     * @param template Шаблон текста.
+     * @param arg1     Первый аргумент шаблона.
+     * @param arg2     Второй аргумент шаблона.
+     */
+    public static void log(LogLevel level, String template, Object arg1, Object arg2) {
+        if (isEnabled(level)) {
+            defaultLogSource.append(new LogEntry(level, template, arg1, arg2));
+        }
+    }
+
+    /**
+     * Добавляет сообщение по шаблону с тремя аргументами.
+     *
+     * @param level    Уровень сообщения.
+     * @param template Шаблон текста.
+     * @param arg1     Первый аргумент шаблона.
+     * @param arg2     Второй аргумент шаблона.
+     * @param arg3     Третий аргумент шаблона.
+     */
+    public static void log(LogLevel level, String template, Object arg1, Object arg2, Object arg3) {
+        if (isEnabled(level)) {
+            defaultLogSource.append(new LogEntry(level, template, arg1, arg2, arg3));
+        }
+    }
+
+    /**
+     * Добавляет сообщение по шаблону с любым числом аргументов. Массив аргументов
+     * создается до вызова, даже если уровень выключен.
+     *
+     * @param level    Уровень сообщения.
+     * @param template Шаблон текста.
+     * @param args     Аргументы шаблона.
+     */
+    public static void log(LogLevel level, String template, Object... args) {
+        if (isEnabled(level)) {
+            defaultLogSource.append(new LogEntry(level, template, args));
+        }
+    }
+
+    public static void trace(String strMessage) {
+        log(LogLevel.Trace, strMessage);
+    }
+
+    public static void trace(Supplier<String> supplier) {
+        log(LogLevel.Trace, supplier);
+    }
+
+    public static void trace(String template, Object arg) {
+        log(LogLevel.Trace, template, arg);
+    }
+
+    public static void trace(String template, Object arg1, Object arg2) {
+        log(LogLevel.Trace, template, arg1, arg2);
+    }
+
+    public static void trace(String template, Object arg1, Object arg2, Object arg3) {
+        log(LogLevel.Trace, template, arg1, arg2, arg3);
+    }
+
+    public static void trace(String template, Object... args) {
+        log(LogLevel.Trace, template, args);
+    }
+
     public static void debug(String strMessage) {
-        defaultLogSource.append(LogLevel.Debug, strMessage);
+        log(LogLevel.Debug, strMessage);
+    }
+
+    public static void debug(Supplier<String> supplier) {
+        log(LogLevel.Debug, supplier);
+    }
+
+    public static void debug(String template, Object arg) {
+        log(LogLevel.Debug, template, arg);
+    }
+
+    public static void debug(String template, Object arg1, Object arg2) {
+        log(LogLevel.Debug, template, arg1, arg2);
+    }
+
+    public static void debug(String template, Object arg1, Object arg2, Object arg3) {
+        log(LogLevel.Debug, template, arg1, arg2, arg3);
+    }
+
+    public static void debug(String template, Object... args) {
+        log(LogLevel.Debug, template, args);
+    }
+
+    public static void info(String strMessage) {
+        log(LogLevel.Info, strMessage);
+    }
+
+    public static void info(Supplier<String> supplier) {
+        log(LogLevel.Info, supplier);
+    }
+
+    public static void info(String template, Object arg) {
+        log(LogLevel.Info, template, arg);
+    }
+
+    public static void info(String template, Object arg1, Object arg2) {
+        log(LogLevel.Info, template, arg1, arg2);
+    }
+
+    public static void info(String template, Object arg1, Object arg2, Object arg3) {
+        log(LogLevel.Info, template, arg1, arg2, arg3);
+    }
+
+    public static void info(String template, Object... args) {
+        log(LogLevel.Info, template, args);
+    }
+
+    public static void warning(String strMessage) {
+        log(LogLevel.Warning, strMessage);
+    }
+
+    public static void warning(Supplier<String> supplier) {
+        log(LogLevel.Warning, supplier);
+    }
+
+    public static void warning(String template, Object arg) {
+        log(LogLevel.Warning, template, arg);
+    }
+
+    public static void warning(String template, Object arg1, Object arg2) {
+        log(LogLevel.Warning, template, arg1, arg2);
+    }
+
+    public static void warning(String template, Object arg1, Object arg2, Object arg3) {
+        log(LogLevel.Warning, template, arg1, arg2, arg3);
+    }
+
+    public static void warning(String template, Object... args) {
+        log(LogLevel.Warning, template, args);
     }
 
     public static void error(String strMessage) {
-        defaultLogSource.append(LogLevel.Error, strMessage);
+        log(LogLevel.Error, strMessage);
+    }
+
+    public static void error(Supplier<String> supplier) {
+        log(LogLevel.Error, supplier);
+    }
+
+    public static void error(String template, Object arg) {
+        log(LogLevel.Error, template, arg);
+    }
+
+    public static void error(String template, Object arg1, Object arg2) {
+        log(LogLevel.Error, template, arg1, arg2);
+    }
+
+    public static void error(String template, Object arg1, Object arg2, Object arg3) {
+        log(LogLevel.Error, template, arg1, arg2, arg3);
+    }
+
+    public static void error(String template, Object... args) {
+        log(LogLevel.Error, template, args);
+    }
+
+    public static void fatal(String strMessage) {
+        log(LogLevel.Fatal, strMessage);
+    }
+
+    public static void fatal(Supplier<String> supplier) {
+        log(LogLevel.Fatal, supplier);
+    }
+
+    public static void fatal(String template, Object arg) {
+        log(LogLevel.Fatal, template, arg);
+    }
+
+    public static void fatal(String template, Object arg1, Object arg2) {
+        log(LogLevel.Fatal, template, arg1, arg2);
+    }
+
+    public static void fatal(String template, Object arg1, Object arg2, Object arg3) {
+        log(LogLevel.Fatal, template, arg1, arg2, arg3);
+    }
+
+    public static void fatal(String template, Object... args) {
+        log(LogLevel.Fatal, template, args);
     }
 
     public static LogWindowSource getDefaultLogSource() {
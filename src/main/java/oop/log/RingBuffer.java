@@ -0,0 +1,210 @@
+package oop.log;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Кольцевой буфер без блокировок для нескольких писателей и читателей,
+ * в котором новые элементы вытесняют самые старые.
+ * <p>
+ * Каждый элемент получает номер из 64-битного счетчика, который не переполняется
+ * за время жизни приложения. Ячейка хранит элемент и метку номера в параллельных массивах,
+ * так что добавление ничего не выделяет. Писатель занимает номер одним атомарным сложением,
+ * отмечает ячейку как записываемую через CAS, кладет элемент и публикует метку.
+ * Метка меняется только на большую, поэтому отставший на круг писатель не затирает
+ * более новый элемент. Писатель ждет другого, только если обогнал его на круг,
+ * пока тот между двумя записями в ту же ячейку.
+ * Читатель по номеру сверяет метку до и после чтения элемента: если она не совпадает,
+ * элемент уже вытеснен (или еще не опубликован) и читатель его пропускает, а не получает чужой.
+ * <p>
+ * Кроме счетчика занятых номеров буфер ведет номер {@link #getPublishedSequence()}, до
+ * которого все элементы опубликованы или уже вытеснены; читателям, которым нужен
+ * непрерывный ряд, следует ограничиваться им.
+ *
+ * @param <T> тип элементов
+ */
+public class RingBuffer<T> {
+    private static final VarHandle NEXT;
+    private static final VarHandle PUBLISHED;
+    private static final VarHandle STAMPS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle ELEMENTS = MethodHandles.arrayElementVarHandle(Object[].class);
+    private static final long EMPTY = -1;
+
+    static {
+        try {
+            NEXT = MethodHandles.lookup().findVarHandle(RingBuffer.class, "m_next", long.class);
+            PUBLISHED = MethodHandles.lookup().findVarHandle(RingBuffer.class, "m_published", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int m_capacity;
+    private final int m_mask;
+    /**
+     * Метки ячеек: {@code 2 * номер} — элемент записывается, {@code 2 * номер + 1} — опубликован.
+     */
+    private final long[] m_stamps;
+    private final Object[] m_elements;
+    @SuppressWarnings("unused")
+    private volatile long m_next;
+    @SuppressWarnings("unused")
+    private volatile long m_published;
+
+    /**
+     * Создает буфер.
+     *
+     * @param capacity Число хранимых элементов.
+     */
+    public RingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        m_capacity = capacity;
+        int length = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        m_mask = length - 1;
+        m_stamps = new long[length];
+        Arrays.fill(m_stamps, EMPTY);
+        m_elements = new Object[length];
+    }
+
+    /**
+     * Добавляет элемент, вытесняя самый старый, если буфер заполнен. Не выделяет памяти.
+     *
+     * @param element Элемент.
+     * @return Номер элемента.
+     */
+    public long put(T element) {
+        long sequence = (long) NEXT.getAndAdd(this, 1L);
+        int index = (int) (sequence & m_mask);
+        long writing = 2 * sequence;
+        long current = (long) STAMPS.getAcquire(m_stamps, index);
+        while (current < writing) {
+            if (current != EMPTY && (current & 1) == 0) {
+                // Писатель, отставший на круг, еще не опубликовал свой элемент.
+                Thread.onSpinWait();
+                current = (long) STAMPS.getAcquire(m_stamps, index);
+                continue;
+            }
+            long witness = (long) STAMPS.compareAndExchange(m_stamps, index, current, writing);
+            if (witness == current) {
+                ELEMENTS.setRelease(m_elements, index, element);
+                STAMPS.setVolatile(m_stamps, index, writing + 1);
+                break;
+            }
+            current = witness;
+        }
+        advancePublished();
+        return sequence;
+    }
+
+    /**
+     * Продвигает номер опубликованных элементов через ячейки, которые уже опубликованы
+     * или заняты более новыми номерами. Вызывается каждым писателем после публикации,
+     * поэтому номер доходит до последнего опубликованного элемента без пропусков.
+     */
+    private void advancePublished() {
+        long published = (long) PUBLISHED.getVolatile(this);
+        while (published < (long) NEXT.getVolatile(this)) {
+            long stamp = (long) STAMPS.getVolatile(m_stamps, (int) (published & m_mask));
+            if (stamp < 2 * published + 1) {
+                return;
+            }
+            long witness = (long) PUBLISHED.compareAndExchange(this, published, published + 1);
+            published = witness == published ? published + 1 : witness;
+        }
+    }
+
+    /**
+     * Возвращает элемент по номеру.
+     *
+     * @param sequence Номер элемента.
+     * @return Элемент или {@code null}, если он вытеснен или еще не опубликован.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(long sequence) {
+        long next = (long) NEXT.getAcquire(this);
+        if (sequence < 0 || sequence >= next || sequence < next - m_capacity) {
+            return null;
+        }
+        int index = (int) (sequence & m_mask);
+        long stamp = 2 * sequence + 1;
+        if ((long) STAMPS.getAcquire(m_stamps, index) != stamp) {
+            return null;
+        }
+        Object element = ELEMENTS.getAcquire(m_elements, index);
+        VarHandle.loadLoadFence();
+        return (long) STAMPS.getAcquire(m_stamps, index) == stamp ? (T) element : null;
+    }
+
+    /**
+     * Возвращает доступные элементы с номерами из диапазона по порядку,
+     * пропуская вытесненные.
+     *
+     * @param from Первый номер включительно.
+     * @param to   Последний номер не включительно.
+     * @return Список элементов.
+     */
+    public List<T> snapshot(long from, long to) {
+        long next = getPublishedSequence();
+        long first = Math.max(from, Math.max(0, next - m_capacity));
+        long last = Math.min(to, next);
+        List<T> result = new ArrayList<>((int) Math.max(0, last - first));
+        for (long sequence = first; sequence < last; sequence++) {
+            T element = get(sequence);
+            if (element != null) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает номер, который получит следующий элемент; он же число добавленных элементов.
+     *
+     * @return Следующий номер.
+     */
+    public long getNextSequence() {
+        return (long) NEXT.getAcquire(this);
+    }
+
+    /**
+     * Возвращает номер, до которого все элементы опубликованы или уже вытеснены.
+     * Элементы с этим номером и дальше могут быть заняты, но еще не записаны.
+     *
+     * @return Номер первого неопубликованного элемента.
+     */
+    public long getPublishedSequence() {
+        return (long) PUBLISHED.getAcquire(this);
+    }
+
+    /**
+     * Возвращает номер самого старого элемента, который еще может быть в буфере.
+     *
+     * @return Номер самого старого элемента.
+     */
+    public long getOldestSequence() {
+        return Math.max(0, getNextSequence() - m_capacity);
+    }
+
+    /**
+     * Возвращает число хранимых элементов.
+     *
+     * @return Число элементов, не больше емкости.
+     */
+    public int size() {
+        return (int) Math.min(getNextSequence(), m_capacity);
+    }
+
+    /**
+     * Возвращает емкость буфера.
+     *
+     * @return Емкость.
+     */
+    public int getCapacity() {
+        return m_capacity;
+    }
+}
@@ -0,0 +1,143 @@
+package oop.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Гистограмма длительностей в наносекундах с фиксированными лог-линейными корзинами.
+ * <p>
+ * Каждая степень двойки делится на {@value #SUB_BUCKETS} равных корзин, поэтому
+ * относительная погрешность перцентилей не превышает 12,5% на всем диапазоне
+ * от наносекунд до часов, а значения меньше {@code 2 * SUB_BUCKETS} хранятся точно.
+ * Корзины создаются один раз, запись значения не выделяет память и не берет блокировок;
+ * читать гистограмму можно из любого потока одновременно с записью.
+ */
+public class Histogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    /**
+     * Число корзин на одну степень двойки.
+     */
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = 2 * SUB_BUCKETS + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray m_counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong m_count = new AtomicLong();
+    private final AtomicLong m_sum = new AtomicLong();
+    private final AtomicLong m_max = new AtomicLong();
+
+    /**
+     * Записывает значение.
+     *
+     * @param value Длительность в наносекундах; отрицательные значения считаются нулем.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        m_counts.incrementAndGet(bucketOf(value));
+        m_count.incrementAndGet();
+        m_sum.addAndGet(value);
+        long max = m_max.get();
+        while (value > max && !m_max.compareAndSet(max, value)) {
+            max = m_max.get();
+        }
+    }
+
+    /**
+     * Записывает время, прошедшее с начала замера.
+     *
+     * @param start Результат {@link Metrics#start()}; ноль означает, что замер не начинался.
+     */
+    public void recordSince(long start) {
+        if (start != 0) {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Возвращает число записанных значений.
+     *
+     * @return Число значений.
+     */
+    public long getCount() {
+        return m_count.get();
+    }
+
+    /**
+     * Возвращает наибольшее записанное значение.
+     *
+     * @return Максимум в наносекундах.
+     */
+    public long getMax() {
+        return m_max.get();
+    }
+
+    /**
+     * Возвращает среднее записанных значений.
+     *
+     * @return Среднее в наносекундах или ноль, если значений нет.
+     */
+    public double getMean() {
+        long count = m_count.get();
+        return count == 0 ? 0 : (double) m_sum.get() / count;
+    }
+
+    /**
+     * Возвращает оценку перцентиля: верхнюю границу корзины, в которую он попал,
+     * но не больше максимума.
+     *
+     * @param percentile Перцентиль от 0 до 100.
+     * @return Значение в наносекундах или ноль, если значений нет.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += m_counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += m_counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), m_max.get());
+            }
+        }
+        return m_max.get();
+    }
+
+    /**
+     * Обнуляет гистограмму. Значения, записанные одновременно со сбросом,
+     * могут частично попасть в новую статистику.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            m_counts.set(i, 0);
+        }
+        m_count.set(0);
+        m_sum.set(0);
+        m_max.set(0);
+    }
+
+    private static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int mantissa = (int) (value >>> shift) - SUB_BUCKETS;
+        return 2 * SUB_BUCKETS + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + mantissa;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - 2 * SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        int mantissa = (bucket - 2 * SUB_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((long) (mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,107 @@
+package oop.metrics;
+
+/**
+ * Метрики времени работы приложения: длительность такта контроллера, опоздание такта
+ * относительно расписания, время уведомления слушателей робота и время отрисовки поля.
+ * <p>
+ * Сбор включается и выключается во время работы. Замер начинается вызовом
+ * {@link #start()}, который при выключенном сборе возвращает ноль без обращения к часам,
+ * а {@link Histogram#recordSince(long)} такой замер пропускает, поэтому выключенные
+ * метрики стоят одного чтения volatile-поля на точку замера.
+ */
+public class Metrics {
+    private final Histogram m_tickTime = new Histogram();
+    private final Histogram m_tickLateness = new Histogram();
+    private final Histogram m_fanOutTime = new Histogram();
+    private final Histogram m_paintTime = new Histogram();
+    private volatile boolean m_enabled;
+
+    private Metrics() {
+    }
+
+    /**
+     * Начинает замер.
+     *
+     * @return Текущее время в наносекундах или ноль, если сбор выключен.
+     */
+    public static long start() {
+        return getInstance().m_enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Проверяет, включен ли сбор метрик.
+     *
+     * @return {@code true}, если сбор включен.
+     */
+    public boolean isEnabled() {
+        return m_enabled;
+    }
+
+    /**
+     * Включает или выключает сбор метрик.
+     *
+     * @param enabled {@code true}, чтобы включить сбор.
+     */
+    public void setEnabled(boolean enabled) {
+        m_enabled = enabled;
+    }
+
+    /**
+     * Обнуляет все гистограммы.
+     */
+    public void reset() {
+        m_tickTime.reset();
+        m_tickLateness.reset();
+        m_fanOutTime.reset();
+        m_paintTime.reset();
+    }
+
+    /**
+     * Возвращает гистограмму длительности такта контроллера.
+     *
+     * @return Гистограмма.
+     */
+    public Histogram getTickTime() {
+        return m_tickTime;
+    }
+
+    /**
+     * Возвращает гистограмму опоздания пробуждений планировщика тактов относительно расписания.
+     *
+     * @return Гистограмма.
+     */
+    public Histogram getTickLateness() {
+        return m_tickLateness;
+    }
+
+    /**
+     * Возвращает гистограмму времени уведомления слушателей о перемещении робота.
+     *
+     * @return Гистограмма.
+     */
+    public Histogram getFanOutTime() {
+        return m_fanOutTime;
+    }
+
+    /**
+     * Возвращает гистограмму времени отрисовки игрового поля.
+     *
+     * @return Гистограмма.
+     */
+    public Histogram getPaintTime() {
+        return m_paintTime;
+    }
+
+    /**
+     * Возвращает единственный экземпляр метрик.
+     *
+     * @return Метрики приложения.
+     */
+    public static Metrics getInstance() {
+        return MetricsHolder.INSTANCE;
+    }
+
+    private static class MetricsHolder {
+        private static final Metrics INSTANCE = new Metrics();
+    }
+}
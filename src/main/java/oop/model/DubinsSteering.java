@@ -0,0 +1,91 @@
+package oop.model;
+
+/**
+ * Управление по кратчайшему пути Дубинса до точки.
+ * <p>
+ * Для машины с минимальным радиусом разворота R = v / ω и свободным конечным направлением
+ * кратчайший путь до точки имеет вид CS (дуга радиуса R, затем отрезок) или CC
+ * (дуга в одну сторону, затем дуга в другую, если цель слишком близко сбоку).
+ * На каждом такте путь пересчитывается в замкнутом виде из текущего положения,
+ * и робот выполняет его первый участок; последний такт дуги укорачивается так,
+ * чтобы робот точно вышел на касательную. Пересчет стоит O(1) и заодно
+ * гасит ошибку дискретизации, поэтому робот движется по тому же пути, что и при
+ * однократном расчете, без накопления погрешности.
+ */
+public class DubinsSteering implements SteeringStrategy {
+    private static final double TWO_PI = 2 * Math.PI;
+    private static final double EPSILON = 1e-9;
+
+    @Override
+    public double angularVelocity(double x, double y, double direction, double targetX, double targetY,
+                                  double velocity, double maxAngularVelocity, double duration) {
+        double radius = velocity / maxAngularVelocity;
+        double bestLength = Double.POSITIVE_INFINITY;
+        double bestTurn = 0;
+        int bestSide = 0;
+        int nextSide = 0;
+        for (int side = -1; side <= 1; side += 2) {
+            double centerX = x - side * radius * Math.sin(direction);
+            double centerY = y + side * radius * Math.cos(direction);
+            double centerDistance = Math.hypot(targetX - centerX, targetY - centerY);
+            if (centerDistance >= radius) {
+                double tangent = Math.atan2(targetY - centerY, targetX - centerX)
+                        + Math.asin(side * radius / centerDistance);
+                double turn = arc(side * (tangent - direction));
+                double length = radius * turn + Math.sqrt(centerDistance * centerDistance - radius * radius);
+                if (length < bestLength) {
+                    bestLength = length;
+                    bestTurn = turn;
+                    bestSide = side;
+                    nextSide = 0;
+                }
+            }
+            if (centerDistance > 3 * radius || centerDistance < radius * (1 - EPSILON)) {
+                continue;
+            }
+            // Центр второй окружности отстоит на 2R от первого центра и на R от цели.
+            double baseAngle = Math.atan2(targetY - centerY, targetX - centerX);
+            double cos = (4 * radius * radius + centerDistance * centerDistance - radius * radius)
+                    / (4 * radius * centerDistance);
+            double offset = Math.acos(Math.max(-1, Math.min(1, cos)));
+            for (int sign = -1; sign <= 1; sign += 2) {
+                double centerAngle = baseAngle + sign * offset;
+                double secondX = centerX + 2 * radius * Math.cos(centerAngle);
+                double secondY = centerY + 2 * radius * Math.sin(centerAngle);
+                double startAngle = direction - side * Math.PI / 2;
+                double firstTurn = arc(side * (centerAngle - startAngle));
+                double targetAngle = Math.atan2(targetY - secondY, targetX - secondX);
+                double secondTurn = arc(-side * (targetAngle - (centerAngle + Math.PI)));
+                double length = radius * (firstTurn + secondTurn);
+                if (length < bestLength) {
+                    bestLength = length;
+                    bestTurn = firstTurn;
+                    bestSide = side;
+                    nextSide = -side;
+                }
+            }
+        }
+        if (bestSide == 0) {
+            return 0;
+        }
+        double fullTurn = maxAngularVelocity * duration;
+        if (bestTurn >= fullTurn) {
+            return bestSide * maxAngularVelocity;
+        }
+        if (bestTurn > EPSILON) {
+            return bestSide * bestTurn / duration;
+        }
+        return nextSide * maxAngularVelocity;
+    }
+
+    /**
+     * Приводит угол поворота к полуинтервалу [0, 2π), считая почти полный оборот нулевым.
+     */
+    private static double arc(double angle) {
+        double turn = angle % TWO_PI;
+        if (turn < 0) {
+            turn += TWO_PI;
+        }
+        return TWO_PI - turn < EPSILON ? 0 : turn;
+    }
+}
@@ -0,0 +1,14 @@
+package oop.model;
+
+/**
+ * Жадное управление: поворот в сторону цели с максимальной скоростью,
+ * а если цель внутри окружности разворота — движение прямо.
+ */
+public class GreedySteering implements SteeringStrategy {
+    @Override
+    public double angularVelocity(double x, double y, double direction, double targetX, double targetY,
+                                  double velocity, double maxAngularVelocity, double duration) {
+        return Kinematics.steer(x, y, direction, targetX, targetY, maxAngularVelocity,
+                velocity / maxAngularVelocity);
+    }
+}
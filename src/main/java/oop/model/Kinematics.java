@@ -0,0 +1,166 @@
+package oop.model;
+
+/**
+ * Общие формулы кинематики робота: геометрия, жадное рулевое управление и
+ * интегрирование движения по дуге постоянной кривизны.
+ * Методы не имеют состояния, поэтому одинаково подходят и для одиночного
+ * {@link Robot}, и для пакетного обхода в {@link RobotWorld}.
+ */
+public final class Kinematics {
+    private Kinematics() {
+    }
+
+    /**
+     * Вычисляет расстояние между двумя точками.
+     *
+     * @param x1 Координата X первой точки.
+     * @param y1 Координата Y первой точки.
+     * @param x2 Координата X второй точки.
+     * @param y2 Координата Y второй точки.
+     * @return Расстояние между точками.
+     */
+    public static double distance(double x1, double y1, double x2, double y2) {
+        double diffX = x1 - x2;
+        double diffY = y1 - y2;
+        return Math.sqrt(diffX * diffX + diffY * diffY);
+    }
+
+    /**
+     * Вычисляет угол между двумя точками.
+     *
+     * @param fromX Координата X первой точки.
+     * @param fromY Координата Y первой точки.
+     * @param toX   Координата X второй точки.
+     * @param toY   Координата Y второй точки.
+     * @return Угол между точками.
+     */
+    public static double angleTo(double fromX, double fromY, double toX, double toY) {
+        double diffX = toX - fromX;
+        double diffY = toY - fromY;
+        return asNormalizedRadians(Math.atan2(diffY, diffX));
+    }
+
+    /**
+     * Нормализует угол в радианах, приводя его к диапазону от 0 до 2pi.
+     *
+     * @param angle угол для нормализации
+     * @return нормализованный угол
+     */
+    public static double asNormalizedRadians(double angle) {
+        while (angle < 0) {
+            angle += 2 * Math.PI;
+        }
+        while (angle >= 2 * Math.PI) {
+            angle -= 2 * Math.PI;
+        }
+        return angle;
+    }
+
+    /**
+     * Применяет ограничения к значению.
+     *
+     * @param value Значение.
+     * @param min   Минимальное значение.
+     * @param max   Максимальное значение.
+     * @return Ограниченное значение.
+     */
+    public static double applyLimits(double value, double min, double max) {
+        if (value < min) return min;
+        if (value > max) return max;
+        return value;
+    }
+
+    /**
+     * Проверяет, лежит ли цель внутри одной из окружностей разворота робота.
+     *
+     * @param x         Позиция робота по оси X.
+     * @param y         Позиция робота по оси Y.
+     * @param direction Направление робота.
+     * @param targetX   Целевая позиция по оси X.
+     * @param targetY   Целевая позиция по оси Y.
+     * @param maxCurve  Минимальный радиус разворота.
+     * @return `true` если недостижима, иначе `false`.
+     */
+    public static boolean unachievable(double x, double y, double direction,
+                                       double targetX, double targetY, double maxCurve) {
+        double dx = targetX - x;
+        double dy = targetY - y;
+
+        double newDX = Math.cos(direction) * dx + Math.sin(direction) * dy;
+        double newDY = Math.cos(direction) * dy - Math.sin(direction) * dx;
+
+        double dist1 = distance(newDX, newDY, 0, maxCurve);
+        double dist2 = distance(newDX, newDY + maxCurve, 0, 0);
+
+        return !(dist1 > maxCurve) || !(dist2 > maxCurve);
+    }
+
+    /**
+     * Жадно выбирает угловую скорость: поворот в сторону цели с максимальной скоростью
+     * либо движение прямо, если цель внутри окружности разворота.
+     *
+     * @param x                  Позиция робота по оси X.
+     * @param y                  Позиция робота по оси Y.
+     * @param direction          Направление робота.
+     * @param targetX            Целевая позиция по оси X.
+     * @param targetY            Целевая позиция по оси Y.
+     * @param maxAngularVelocity Максимальная угловая скорость.
+     * @param maxCurve           Минимальный радиус разворота.
+     * @return Угловая скорость на такт.
+     */
+    public static double steer(double x, double y, double direction, double targetX, double targetY,
+                               double maxAngularVelocity, double maxCurve) {
+        double angleToTarget = angleTo(x, y, targetX, targetY);
+        double angularVelocity = 0;
+        if (asNormalizedRadians(angleToTarget - direction) < Math.PI) {
+            angularVelocity = maxAngularVelocity;
+        }
+        if (asNormalizedRadians(angleToTarget - direction) > Math.PI) {
+            angularVelocity = -maxAngularVelocity;
+        }
+        if (unachievable(x, y, direction, targetX, targetY, maxCurve)) {
+            angularVelocity = 0;
+        }
+        return angularVelocity;
+    }
+
+    /**
+     * Координата X после движения по дуге постоянной кривизны.
+     *
+     * @param x               Текущая координата X.
+     * @param direction       Текущее направление.
+     * @param velocity        Линейная скорость.
+     * @param angularVelocity Угловая скорость.
+     * @param duration        Длительность перемещения.
+     * @return Новая координата X.
+     */
+    public static double moveX(double x, double direction, double velocity, double angularVelocity,
+                               double duration) {
+        double newX = x + velocity / angularVelocity * (Math.sin(direction
+                + angularVelocity * duration) - Math.sin(direction));
+        if (!Double.isFinite(newX)) {
+            newX = x + velocity * duration * Math.cos(direction);
+        }
+        return newX;
+    }
+
+    /**
+     * Координата Y после движения по дуге постоянной кривизны.
+     *
+     * @param y               Текущая координата Y.
+     * @param direction       Текущее направление.
+     * @param velocity        Линейная скорость.
+     * @param angularVelocity Угловая скорость.
+     * @param duration        Длительность перемещения.
+     * @return Новая координата Y.
+     */
+    public static double moveY(double y, double direction, double velocity, double angularVelocity,
+                               double duration) {
+        double newY = y - velocity / angularVelocity * (Math.cos(direction
+                + angularVelocity * duration) - Math.cos(direction));
+        if (!Double.isFinite(newY)) {
+            newY = y + velocity * duration * Math.sin(direction);
+        }
+        return newY;
+    }
+}
@@ -0,0 +1,15 @@
+package oop.model;
+
+/**
+ * Слушатель изменений карты препятствий.
+ */
+public interface ObstacleListener {
+    /**
+     * Вызывается после того, как клетка карты стала занятой или свободной.
+     *
+     * @param cellX   Номер клетки по оси X.
+     * @param cellY   Номер клетки по оси Y.
+     * @param blocked `true`, если клетка стала занятой, иначе `false`.
+     */
+    void onObstacleChanged(int cellX, int cellY, boolean blocked);
+}
@@ -0,0 +1,125 @@
+package oop.model;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Карта препятствий в виде битовой сетки: плоскость делится на квадратные клетки,
+ * каждая клетка занята или свободна. Клетки за пределами карты считаются занятыми.
+ * <p>
+ * Каждое изменение увеличивает версию карты и сообщается слушателям
+ * {@link ObstacleListener}, например планировщику путей для сброса устаревших маршрутов.
+ */
+public class ObstacleMap {
+    private final int m_cellSize;
+    private final int m_width;
+    private final int m_height;
+    private final long[] m_bits;
+    private final CopyOnWriteArrayList<ObstacleListener> m_listeners = new CopyOnWriteArrayList<>();
+    private volatile long m_version;
+
+    /**
+     * Создает пустую карту.
+     *
+     * @param cellSize Размер клетки в пикселях.
+     * @param width    Ширина карты в клетках.
+     * @param height   Высота карты в клетках.
+     */
+    public ObstacleMap(int cellSize, int width, int height) {
+        if (cellSize < 1 || width < 1 || height < 1) {
+            throw new IllegalArgumentException("Invalid map size: " + cellSize + ", " + width + "x" + height);
+        }
+        m_cellSize = cellSize;
+        m_width = width;
+        m_height = height;
+        m_bits = new long[(width * height + 63) >>> 6];
+    }
+
+    public int getCellSize() {
+        return m_cellSize;
+    }
+
+    public int getWidth() {
+        return m_width;
+    }
+
+    public int getHeight() {
+        return m_height;
+    }
+
+    /**
+     * Возвращает номер клетки, содержащей координату.
+     *
+     * @param coordinate Координата в пикселях.
+     * @return Номер клетки.
+     */
+    public int cellOf(double coordinate) {
+        return (int) Math.floor(coordinate / m_cellSize);
+    }
+
+    /**
+     * Проверяет, лежит ли клетка в пределах карты.
+     *
+     * @param cellX Номер клетки по оси X.
+     * @param cellY Номер клетки по оси Y.
+     * @return `true`, если клетка на карте, иначе `false`.
+     */
+    public boolean contains(int cellX, int cellY) {
+        return cellX >= 0 && cellY >= 0 && cellX < m_width && cellY < m_height;
+    }
+
+    /**
+     * Проверяет, занята ли клетка.
+     *
+     * @param cellX Номер клетки по оси X.
+     * @param cellY Номер клетки по оси Y.
+     * @return `true`, если клетка занята или лежит за пределами карты.
+     */
+    public boolean isBlocked(int cellX, int cellY) {
+        if (!contains(cellX, cellY)) {
+            return true;
+        }
+        int cell = cellY * m_width + cellX;
+        return (m_bits[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Занимает или освобождает клетку.
+     *
+     * @param cellX   Номер клетки по оси X.
+     * @param cellY   Номер клетки по оси Y.
+     * @param blocked `true`, чтобы занять клетку, `false`, чтобы освободить.
+     */
+    public void setBlocked(int cellX, int cellY, boolean blocked) {
+        if (!contains(cellX, cellY)) {
+            throw new IndexOutOfBoundsException("Cell " + cellX + ", " + cellY + " is outside the map");
+        }
+        synchronized (this) {
+            if (isBlocked(cellX, cellY) == blocked) {
+                return;
+            }
+            int cell = cellY * m_width + cellX;
+            m_bits[cell >>> 6] ^= 1L << cell;
+            m_version++;
+        }
+        for (ObstacleListener listener : m_listeners) {
+            listener.onObstacleChanged(cellX, cellY, blocked);
+        }
+    }
+
+    /**
+     * Возвращает версию карты, которая увеличивается при каждом изменении.
+     *
+     * @return Версия карты.
+     */
+    public long getVersion() {
+        return m_version;
+    }
+
+    public void addObstacleListener(ObstacleListener listener) {
+        m_listeners.add(listener);
+    }
+
+    public void removeObstacleListener(ObstacleListener listener) {
+        m_listeners.remove(listener);
+    }
+}
@@ -0,0 +1,395 @@
+package oop.model;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Планировщик путей по карте препятствий.
+ * <p>
+ * Путь ищется алгоритмом A* по клеткам {@link ObstacleMap} с восемью соседями
+ * (по диагонали только если обе смежные клетки свободны) и октильной эвристикой,
+ * затем спрямляется: промежуточная точка остается только там, где из предыдущей
+ * точки не видно следующую. Результат — список точек маршрута в пикселях,
+ * последняя из которых совпадает с целью.
+ * <p>
+ * Найденные пути кэшируются по паре (клетка старта, клетка цели). При изменении карты
+ * кэш сбрасывается выборочно: занятая клетка удаляет только пути, проходящие через нее,
+ * а освобожденная — только пути, которые через нее могли бы стать короче,
+ * и ранее ненайденные пути.
+ */
+public class PathPlanner implements ObstacleListener {
+    private static final int DEFAULT_CACHE_SIZE = 1024;
+    private static final double DIAGONAL = Math.sqrt(2);
+    private static final int[] NEIGHBOUR_X = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] NEIGHBOUR_Y = {0, 0, 1, -1, 1, -1, 1, -1};
+    private static final int[] NO_CELLS = new int[0];
+
+    private final ObstacleMap m_map;
+    private final Map<Long, Plan> m_cache;
+    private final double[] m_cost;
+    private final int[] m_parent;
+    private final int[] m_openStamp;
+    private final int[] m_closedStamp;
+    private int m_stamp;
+    private int[] m_heapCell = new int[64];
+    private double[] m_heapKey = new double[64];
+    private int m_heapSize;
+    private long m_hits;
+    private long m_misses;
+
+    /**
+     * Создает планировщик с кэшем на {@value #DEFAULT_CACHE_SIZE} путей.
+     *
+     * @param map Карта препятствий.
+     */
+    public PathPlanner(ObstacleMap map) {
+        this(map, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Создает планировщик.
+     *
+     * @param map       Карта препятствий.
+     * @param cacheSize Максимальное число путей в кэше; вытесняются давно не использованные.
+     */
+    public PathPlanner(ObstacleMap map, int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative: " + cacheSize);
+        }
+        m_map = map;
+        m_cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Plan> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        int cells = map.getWidth() * map.getHeight();
+        m_cost = new double[cells];
+        m_parent = new int[cells];
+        m_openStamp = new int[cells];
+        m_closedStamp = new int[cells];
+        map.addObstacleListener(this);
+    }
+
+    public ObstacleMap getMap() {
+        return m_map;
+    }
+
+    /**
+     * Строит маршрут из точки старта в точку цели.
+     * Если старт или цель лежат за пределами карты, маршрут ведет прямо к цели.
+     *
+     * @param startX Координата X старта.
+     * @param startY Координата Y старта.
+     * @param goalX  Координата X цели.
+     * @param goalY  Координата Y цели.
+     * @return Точки маршрута подряд (x0, y0, x1, y1, ...) или {@code null}, если цель недостижима.
+     */
+    public synchronized int[] plan(double startX, double startY, int goalX, int goalY) {
+        int startCellX = m_map.cellOf(startX);
+        int startCellY = m_map.cellOf(startY);
+        int goalCellX = m_map.cellOf(goalX);
+        int goalCellY = m_map.cellOf(goalY);
+        if (!m_map.contains(startCellX, startCellY) || !m_map.contains(goalCellX, goalCellY)) {
+            return new int[]{goalX, goalY};
+        }
+        int width = m_map.getWidth();
+        int start = startCellY * width + startCellX;
+        int goal = goalCellY * width + goalCellX;
+        Long key = ((long) start << 32) | goal;
+        Plan plan = m_cache.get(key);
+        if (plan != null) {
+            m_hits++;
+        } else {
+            m_misses++;
+            long version = m_map.getVersion();
+            plan = search(start, goal);
+            if (m_map.getVersion() == version) {
+                m_cache.put(key, plan);
+            }
+        }
+        if (plan.waypoints() == null) {
+            return null;
+        }
+        int[] route = new int[2 * plan.waypoints().length + 2];
+        int cellSize = m_map.getCellSize();
+        for (int i = 0; i < plan.waypoints().length; i++) {
+            route[2 * i] = (plan.waypoints()[i] % width) * cellSize + cellSize / 2;
+            route[2 * i + 1] = (plan.waypoints()[i] / width) * cellSize + cellSize / 2;
+        }
+        route[route.length - 2] = goalX;
+        route[route.length - 1] = goalY;
+        return route;
+    }
+
+    /**
+     * Возвращает число запросов, обслуженных из кэша.
+     *
+     * @return Число попаданий в кэш.
+     */
+    public synchronized long getHits() {
+        return m_hits;
+    }
+
+    /**
+     * Возвращает число запросов, для которых путь пришлось искать.
+     *
+     * @return Число промахов кэша.
+     */
+    public synchronized long getMisses() {
+        return m_misses;
+    }
+
+    /**
+     * Возвращает число путей в кэше.
+     *
+     * @return Размер кэша.
+     */
+    public synchronized int getCacheSize() {
+        return m_cache.size();
+    }
+
+    /**
+     * Сбрасывает пути, на которые влияет изменение клетки.
+     */
+    @Override
+    public synchronized void onObstacleChanged(int cellX, int cellY, boolean blocked) {
+        int cell = cellY * m_map.getWidth() + cellX;
+        Iterator<Plan> iterator = m_cache.values().iterator();
+        while (iterator.hasNext()) {
+            Plan plan = iterator.next();
+            boolean stale;
+            if (blocked) {
+                stale = Arrays.binarySearch(plan.traversed(), cell) >= 0;
+            } else {
+                stale = plan.cost() > octile(plan.start(), cell) + octile(cell, plan.goal());
+            }
+            if (stale) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Ищет путь алгоритмом A* и спрямляет его.
+     */
+    private Plan search(int start, int goal) {
+        if (m_map.isBlocked(goal % m_map.getWidth(), goal / m_map.getWidth())) {
+            return new Plan(start, goal, Double.POSITIVE_INFINITY, null, NO_CELLS);
+        }
+        int width = m_map.getWidth();
+        int stamp = nextStamp();
+        m_heapSize = 0;
+        m_cost[start] = 0;
+        m_parent[start] = -1;
+        m_openStamp[start] = stamp;
+        push(start, octile(start, goal));
+        while (m_heapSize > 0) {
+            int cell = pop();
+            if (m_closedStamp[cell] == stamp) {
+                continue;
+            }
+            if (cell == goal) {
+                return buildPlan(start, goal);
+            }
+            m_closedStamp[cell] = stamp;
+            int cellX = cell % width;
+            int cellY = cell / width;
+            for (int i = 0; i < NEIGHBOUR_X.length; i++) {
+                int nextX = cellX + NEIGHBOUR_X[i];
+                int nextY = cellY + NEIGHBOUR_Y[i];
+                if (m_map.isBlocked(nextX, nextY)) {
+                    continue;
+                }
+                boolean diagonal = i >= 4;
+                if (diagonal && (m_map.isBlocked(nextX, cellY) || m_map.isBlocked(cellX, nextY))) {
+                    continue;
+                }
+                int next = nextY * width + nextX;
+                if (m_closedStamp[next] == stamp) {
+                    continue;
+                }
+                double cost = m_cost[cell] + (diagonal ? DIAGONAL : 1);
+                if (m_openStamp[next] != stamp || cost < m_cost[next]) {
+                    m_openStamp[next] = stamp;
+                    m_cost[next] = cost;
+                    m_parent[next] = cell;
+                    push(next, cost + octile(next, goal));
+                }
+            }
+        }
+        return new Plan(start, goal, Double.POSITIVE_INFINITY, null, NO_CELLS);
+    }
+
+    /**
+     * Восстанавливает путь по ссылкам на предков и оставляет только точки поворота,
+     * между которыми отрезок не задевает занятых клеток.
+     */
+    private Plan buildPlan(int start, int goal) {
+        int length = 0;
+        for (int cell = goal; cell != -1; cell = m_parent[cell]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int cell = goal, i = length - 1; cell != -1; cell = m_parent[cell], i--) {
+            path[i] = cell;
+        }
+        int[] waypoints = new int[length];
+        int waypointCount = 0;
+        CellSet traversed = new CellSet();
+        int anchor = 0;
+        for (int i = 1; i < length; i++) {
+            if (i + 1 < length && lineOfSight(path[anchor], path[i + 1], null)) {
+                continue;
+            }
+            lineOfSight(path[anchor], path[i], traversed);
+            if (i + 1 < length) {
+                waypoints[waypointCount++] = path[i];
+            }
+            anchor = i;
+        }
+        traversed.add(start);
+        return new Plan(start, goal, m_cost[goal], Arrays.copyOf(waypoints, waypointCount), traversed.toSortedArray());
+    }
+
+    /**
+     * Проверяет, что отрезок между центрами клеток проходит только по свободным клеткам.
+     * Обходятся все клетки, которых касается отрезок, включая обе клетки при проходе через угол.
+     *
+     * @param traversed Множество, в которое добавляются пройденные клетки, или {@code null}.
+     */
+    private boolean lineOfSight(int from, int to, CellSet traversed) {
+        int width = m_map.getWidth();
+        int x = from % width;
+        int y = from / width;
+        int toX = to % width;
+        int toY = to / width;
+        int diffX = Math.abs(toX - x);
+        int diffY = Math.abs(toY - y);
+        int stepX = toX > x ? 1 : -1;
+        int stepY = toY > y ? 1 : -1;
+        int error = diffX - diffY;
+        diffX *= 2;
+        diffY *= 2;
+        for (int n = (diffX + diffY) / 2; ; n--) {
+            if (m_map.isBlocked(x, y)) {
+                return false;
+            }
+            if (traversed != null) {
+                traversed.add(y * width + x);
+            }
+            if (n == 0) {
+                return true;
+            }
+            if (error > 0) {
+                x += stepX;
+                error -= diffY;
+            } else if (error < 0) {
+                y += stepY;
+                error += diffX;
+            } else {
+                if (m_map.isBlocked(x + stepX, y) || m_map.isBlocked(x, y + stepY)) {
+                    return false;
+                }
+                if (traversed != null) {
+                    traversed.add(y * width + x + stepX);
+                    traversed.add((y + stepY) * width + x);
+                }
+                x += stepX;
+                y += stepY;
+                error += diffX - diffY;
+                n--;
+            }
+        }
+    }
+
+    private double octile(int from, int to) {
+        int width = m_map.getWidth();
+        int diffX = Math.abs(from % width - to % width);
+        int diffY = Math.abs(from / width - to / width);
+        return Math.max(diffX, diffY) + (DIAGONAL - 1) * Math.min(diffX, diffY);
+    }
+
+    private int nextStamp() {
+        if (++m_stamp == 0) {
+            Arrays.fill(m_openStamp, 0);
+            Arrays.fill(m_closedStamp, 0);
+            m_stamp = 1;
+        }
+        return m_stamp;
+    }
+
+    private void push(int cell, double key) {
+        if (m_heapSize == m_heapCell.length) {
+            m_heapCell = Arrays.copyOf(m_heapCell, m_heapSize * 2);
+            m_heapKey = Arrays.copyOf(m_heapKey, m_heapSize * 2);
+        }
+        int position = m_heapSize++;
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (m_heapKey[parent] <= key) {
+                break;
+            }
+            m_heapCell[position] = m_heapCell[parent];
+            m_heapKey[position] = m_heapKey[parent];
+            position = parent;
+        }
+        m_heapCell[position] = cell;
+        m_heapKey[position] = key;
+    }
+
+    private int pop() {
+        int result = m_heapCell[0];
+        int cell = m_heapCell[--m_heapSize];
+        double key = m_heapKey[m_heapSize];
+        int position = 0;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= m_heapSize) {
+                break;
+            }
+            if (child + 1 < m_heapSize && m_heapKey[child + 1] < m_heapKey[child]) {
+                child++;
+            }
+            if (m_heapKey[child] >= key) {
+                break;
+            }
+            m_heapCell[position] = m_heapCell[child];
+            m_heapKey[position] = m_heapKey[child];
+            position = child;
+        }
+        m_heapCell[position] = cell;
+        m_heapKey[position] = key;
+        return result;
+    }
+
+    /**
+     * Найденный путь: промежуточные клетки маршрута, длина пути по сетке
+     * и отсортированные номера клеток, через которые проходят отрезки маршрута.
+     */
+    private record Plan(int start, int goal, double cost, int[] waypoints, int[] traversed) {
+    }
+
+    /**
+     * Растущий массив номеров клеток.
+     */
+    private static final class CellSet {
+        private int[] m_cells = new int[16];
+        private int m_size;
+
+        void add(int cell) {
+            if (m_size == m_cells.length) {
+                m_cells = Arrays.copyOf(m_cells, m_size * 2);
+            }
+            m_cells[m_size++] = cell;
+        }
+
+        int[] toSortedArray() {
+            int[] cells = Arrays.copyOf(m_cells, m_size);
+            Arrays.sort(cells);
+            return cells;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package oop.model;
+
+/**
+ * Слушатель изменений положения робота.
+ */
+public interface PoseListener {
+    /**
+     * Вызывается в потоке модели после каждого перемещения робота.
+     * Снимок {@code pose} переиспользуется и действителен только во время вызова.
+     *
+     * @param robot Робот, положение которого изменилось.
+     * @param pose  Снимок нового положения.
+     */
+    void onPoseChanged(RobotBehavior robot, RobotPose pose);
+}
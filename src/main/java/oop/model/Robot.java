@@ -1,8 +1,14 @@
 package oop.model;
 
+import java.util.concurrent.locks.StampedLock;
+
 /**
  * Этот класс представляет робота, который может перемещаться по двумерной плоскости.
  * Робот является наблюдаемым объектом, поэтому он может уведомлять наблюдателей об изменениях своего состояния.
+ * <p>
+ * Изменения положения и цели выполняются под блокировкой записи {@link StampedLock},
+ * а {@link #readPose(RobotPose)} читает без блокировки (оптимистичное чтение) и повторяет
+ * чтение, если за это время была запись, поэтому снимок всегда согласован и не задерживает поток тактов.
  */
 public class Robot extends RobotBehavior {
     private volatile double m_robotPositionX = 100;
@@ -10,8 +16,11 @@ public class Robot extends RobotBehavior {
     private volatile double m_robotDirection = 0;
     private volatile int m_targetPositionX = 150;
     private volatile int m_targetPositionY = 100;
-    private static final double maxVelocity = 0.1;
-    private static final double maxAngularVelocity = 0.003;
+    static final double maxVelocity = 0.1;
+    static final double maxAngularVelocity = 0.003;
+    private static final int MAX_CYCLE = 8;
+    private final StampedLock m_lock = new StampedLock();
+    private volatile SteeringStrategy m_steering = new GreedySteering();
 
     /**
      * Конструктор по умолчанию.
@@ -27,123 +36,359 @@ public class Robot extends RobotBehavior {
      * @param y Целевая позиция по оси Y.
      */
     public void setTargetPosition(Integer x, Integer y) {
-        m_targetPositionX = x;
-        m_targetPositionY = y;
+        long stamp = m_lock.writeLock();
+        try {
+            m_targetPositionX = x;
+            m_targetPositionY = y;
+        } finally {
+            m_lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean supportsSetPose() {
+        return true;
     }
 
     /**
-     * Вычисляет расстояние между двумя точками.
+     * Переносит робота в заданное положение.
      *
-     * @param x1 Координата X первой точки.
-     * @param y1 Координата Y первой точки.
-     * @param x2 Координата X второй точки.
-     * @param y2 Координата Y второй точки.
-     * @return Расстояние между точками.
+     * @param x         Позиция по оси X.
+     * @param y         Позиция по оси Y.
+     * @param direction Направление.
      */
-    private static double distance(double x1, double y1, double x2, double y2) {
-        double diffX = x1 - x2;
-        double diffY = y1 - y2;
-        return Math.sqrt(diffX * diffX + diffY * diffY);
+    @Override
+    public void setPose(double x, double y, double direction) {
+        long stamp = m_lock.writeLock();
+        try {
+            m_robotPositionX = x;
+            m_robotPositionY = y;
+            m_robotDirection = Kinematics.asNormalizedRadians(direction);
+        } finally {
+            m_lock.unlockWrite(stamp);
+        }
     }
 
     /**
-     * Вычисляет угол между двумя точками.
+     * Устанавливает стратегию управления.
      *
-     * @param fromX Координата X первой точки.
-     * @param fromY Координата Y первой точки.
-     * @param toX   Координата X второй точки.
-     * @param toY   Координата Y второй точки.
-     * @return Угол между точками.
+     * @param steering Стратегия управления.
      */
-    private static double angleTo(double fromX, double fromY, double toX, double toY) {
-        double diffX = toX - fromX;
-        double diffY = toY - fromY;
-        return asNormalizedRadians(Math.atan2(diffY, diffX));
+    public void setSteeringStrategy(SteeringStrategy steering) {
+        if (steering == null) {
+            throw new IllegalArgumentException("Steering strategy must not be null");
+        }
+        m_steering = steering;
+    }
+
+    /**
+     * Возвращает стратегию управления.
+     *
+     * @return Стратегия управления.
+     */
+    public SteeringStrategy getSteeringStrategy() {
+        return m_steering;
     }
 
     /**
      * Обрабатывает событие обновления модели.
      */
     public void onModelUpdateEvent() {
-        double distance = distance(m_targetPositionX, m_targetPositionY, m_robotPositionX, m_robotPositionY);
-        if (distance < 0.5) {
-            return;
+        boolean moved;
+        long stamp = m_lock.writeLock();
+        try {
+            moved = step();
+        } finally {
+            m_lock.unlockWrite(stamp);
         }
-        double velocity = maxVelocity;
-        double angleToTarget = angleTo(m_robotPositionX, m_robotPositionY, m_targetPositionX, m_targetPositionY);
-        double angularVelocity = 0;
-        if (asNormalizedRadians(angleToTarget - m_robotDirection) < Math.PI) {
-            angularVelocity = maxAngularVelocity;
+        if (moved) {
+            firePoseChanged();
         }
-        if (asNormalizedRadians(angleToTarget - m_robotDirection) > Math.PI) {
-            angularVelocity = -maxAngularVelocity;
+    }
+
+    /**
+     * Заполняет снимок согласованным положением робота, не блокируя поток тактов.
+     *
+     * @param pose Снимок, в который записывается положение.
+     */
+    @Override
+    public void readPose(RobotPose pose) {
+        while (true) {
+            long stamp = m_lock.tryOptimisticRead();
+            double x = m_robotPositionX;
+            double y = m_robotPositionY;
+            double direction = m_robotDirection;
+            int targetX = m_targetPositionX;
+            int targetY = m_targetPositionY;
+            if (stamp != 0 && m_lock.validate(stamp)) {
+                pose.set(x, y, direction, targetX, targetY);
+                return;
+            }
+            Thread.onSpinWait();
         }
-        if (unachievable(m_targetPositionX, m_targetPositionY)) {
-            angularVelocity = 0;
+    }
+
+    /**
+     * Выполняет один такт движения к цели.
+     *
+     * @return `true`, если робот сдвинулся, иначе `false`.
+     */
+    private boolean step() {
+        double distance = Kinematics.distance(m_targetPositionX, m_targetPositionY,
+                m_robotPositionX, m_robotPositionY);
+        if (distance < 0.5) {
+            return false;
         }
+        double velocity = maxVelocity;
+        double angularVelocity = m_steering.angularVelocity(m_robotPositionX, m_robotPositionY, m_robotDirection,
+                m_targetPositionX, m_targetPositionY, velocity, maxAngularVelocity, 10);
         moveRobot(velocity, angularVelocity, 10);
-        setChanged();
-        notifyObservers("Robot moved");
-        clearChanged();
+        return true;
     }
 
     /**
-     * Применяет ограничения к значению.
+     * Продвигает модель на указанное число тактов, перескакивая однотипные такты целиком.
+     * <p>
+     * Пока цель не меняется, жадное управление проходит через фазы, в каждой из которых
+     * такты повторяются: поворот по дуге с постоянной угловой скоростью, движение прямо,
+     * пока цель внутри окружности разворота, и движение к цели, при котором управление
+     * чередует поворот влево и вправо. Положение через k тактов любой такой фазы
+     * вычисляется в замкнутом виде, поэтому длина фазы находится делением пополам,
+     * а сам переход выполняется за один шаг. Условия, определяющие смену фазы,
+     * монотонны вдоль дуги или прямой, поэтому их достаточно проверить в конце перехода.
+     * <p>
+     * Траектория совпадает с пошаговой с точностью до округления. Чтобы округление
+     * не изменило решение управления, переход принимается только если в его конце цель
+     * отстоит от радиуса прибытия и от окружностей разворота не меньше чем на запас {@code clearance}.
+     * Чем больше запас, тем меньше переходов; с бесконечным запасом переходов нет,
+     * и траектория совпадает с пошаговой в точности.
+     * Переходы рассчитаны на жадное управление; с другими стратегиями такты выполняются по одному.
      *
-     * @param value Значение.
-     * @param min   Минимальное значение.
-     * @param max   Максимальное значение.
-     * @return Ограниченное значение.
+     * @param ticks     Число тактов.
+     * @param clearance Запас до радиуса прибытия и окружностей разворота.
      */
-    private static double applyLimits(double value, double min, double max) {
-        if (value < min) return min;
-        if (value > max) return max;
-        return value;
+    @Override
+    public void fastForward(long ticks, double clearance) {
+        boolean moved = false;
+        long remaining = ticks;
+        double[] pose = new double[3];
+        boolean greedy = m_steering instanceof GreedySteering;
+        while (remaining > 0) {
+            long jump;
+            long stamp = m_lock.writeLock();
+            try {
+                jump = remaining > 1 && greedy ? longestJump(remaining, clearance, pose) : 0;
+                if (jump > 1) {
+                    m_robotPositionX = pose[0];
+                    m_robotPositionY = pose[1];
+                    m_robotDirection = pose[2];
+                } else {
+                    jump = step() ? 1 : 0;
+                }
+            } finally {
+                m_lock.unlockWrite(stamp);
+            }
+            if (jump == 0) {
+                break;
+            }
+            moved = true;
+            remaining -= jump;
+        }
+        if (moved) {
+            firePoseChanged();
+        }
     }
 
     /**
-     * Перемещение робота.
+     * Находит самый длинный переход в пределах текущей фазы.
      *
-     * @param velocity        Расстояние, которое проходит робот за такт.
-     * @param angularVelocity Число радиан, на которые робот может повернуться за такт.
-     * @param duration        Длительность перемещения.
+     * @param maxTicks  Максимальная длина перехода в тактах.
+     * @param clearance Запас до радиуса прибытия и окружностей разворота.
+     * @param pose      Массив, в который записывается положение в конце перехода.
+     * @return Длина перехода в тактах; меньше 2, если фазу нужно пройти пошагово.
      */
+    private long longestJump(long maxTicks, double clearance, double[] pose) {
+        double x = m_robotPositionX;
+        double y = m_robotPositionY;
+        double direction = m_robotDirection;
+        double first = decide(x, y, direction);
+        if (Double.isNaN(first)) {
+            return 0;
+        }
+        if (first != 0) {
+            double nextDirection = Kinematics.asNormalizedRadians(direction + first * 10);
+            double second = decide(Kinematics.moveX(x, direction, maxVelocity, first, 10),
+                    Kinematics.moveY(y, direction, maxVelocity, first, 10), nextDirection);
+            long arcTicks = second == first ? longestArc(x, y, direction, first, maxTicks, clearance) : 0;
+            if (arcTicks > MAX_CYCLE) {
+                pose[0] = Kinematics.moveX(x, direction, maxVelocity, first, 10 * arcTicks);
+                pose[1] = Kinematics.moveY(y, direction, maxVelocity, first, 10 * arcTicks);
+                pose[2] = Kinematics.asNormalizedRadians(direction + first * 10 * arcTicks);
+                return arcTicks;
+            }
+        }
+        double[] decisions = new double[MAX_CYCLE];
+        int period = cyclePeriod(x, y, direction, decisions, pose);
+        if (period == 0 || maxTicks < period) {
+            return 0;
+        }
+        double cycleX = pose[0] - x;
+        double cycleY = pose[1] - y;
+        long lo = 1;
+        long hi = maxTicks / period;
+        while (lo < hi) {
+            long mid = lo + (hi - lo + 1) / 2;
+            if (repeatsCycle(x + (mid - 1) * cycleX, y + (mid - 1) * cycleY, direction, decisions, period,
+                    cycleX, cycleY, clearance)) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        pose[0] = x + lo * cycleX;
+        pose[1] = y + lo * cycleY;
+        pose[2] = direction;
+        return period * lo;
+    }
 
-    private void moveRobot(double velocity, double angularVelocity, double duration) {
-        velocity = applyLimits(velocity, 0, maxVelocity);
-        angularVelocity = applyLimits(angularVelocity, -maxAngularVelocity, maxAngularVelocity);
-        double newX = m_robotPositionX + velocity / angularVelocity * (Math.sin(m_robotDirection
-                + angularVelocity * duration) - Math.sin(m_robotDirection));
+    /**
+     * Находит самое длинное движение по дуге с постоянной угловой скоростью.
+     * Дуга ограничена выходом на касательную к цели: дальше робот поворачивается
+     * от цели и условия смены фазы перестают быть монотонными.
+     */
+    private long longestArc(double x, double y, double direction, double angularVelocity, long maxTicks,
+                            double clearance) {
+        double radius = maxVelocity / angularVelocity;
+        double centerX = x - radius * Math.sin(direction);
+        double centerY = y + radius * Math.cos(direction);
+        double centerDistance = Kinematics.distance(m_targetPositionX, m_targetPositionY, centerX, centerY);
+        if (centerDistance - Math.abs(radius) < 0.5 + clearance) {
+            return 0;
+        }
+        double tangentDirection = Math.atan2(m_targetPositionY - centerY, m_targetPositionX - centerX)
+                + Math.asin(radius / centerDistance);
+        double turn = angularVelocity > 0
+                ? Kinematics.asNormalizedRadians(tangentDirection - direction)
+                : Kinematics.asNormalizedRadians(direction - tangentDirection);
+        long lo = 1;
+        long hi = Math.min(maxTicks, (long) (turn / (Math.abs(angularVelocity) * 10)) + 1);
+        while (lo < hi) {
+            long mid = lo + (hi - lo + 1) / 2;
+            double duration = 10 * (mid - 1);
+            double lastDirection = Kinematics.asNormalizedRadians(direction + angularVelocity * duration);
+            double lastX = Kinematics.moveX(x, direction, maxVelocity, angularVelocity, duration);
+            double lastY = Kinematics.moveY(y, direction, maxVelocity, angularVelocity, duration);
+            if (decide(lastX, lastY, lastDirection) == angularVelocity
+                    && hasClearance(lastX, lastY, lastDirection, clearance)) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
 
+    /**
+     * Ищет цикл управления: последовательность тактов, после которой курс робота
+     * возвращается к исходному, а сам робот смещается на постоянный вектор.
+     *
+     * @param decisions Массив, в который записываются угловые скорости тактов цикла.
+     * @param pose      Массив, в который записывается положение после цикла.
+     * @return Длина цикла в тактах или 0, если цикл не найден.
+     */
+    private int cyclePeriod(double x, double y, double direction, double[] decisions, double[] pose) {
+        double cycleX = x;
+        double cycleY = y;
+        double cycleDirection = direction;
+        for (int period = 1; period <= MAX_CYCLE; period++) {
+            double angularVelocity = decide(cycleX, cycleY, cycleDirection);
+            if (Double.isNaN(angularVelocity)) {
+                return 0;
+            }
+            decisions[period - 1] = angularVelocity;
+            double nextX = Kinematics.moveX(cycleX, cycleDirection, maxVelocity, angularVelocity, 10);
+            cycleY = Kinematics.moveY(cycleY, cycleDirection, maxVelocity, angularVelocity, 10);
+            cycleX = nextX;
+            cycleDirection = Kinematics.asNormalizedRadians(cycleDirection + angularVelocity * 10);
+            double turn = Kinematics.asNormalizedRadians(cycleDirection - direction);
+            if (Math.min(turn, 2 * Math.PI - turn) < 1e-9
+                    && repeatsCycle(cycleX, cycleY, direction, decisions, period, 0, 0, 0)) {
+                pose[0] = cycleX;
+                pose[1] = cycleY;
+                return period;
+            }
+        }
+        return 0;
+    }
 
-        if (!Double.isFinite(newX)) {
-            newX = m_robotPositionX + velocity * duration * Math.cos(m_robotDirection);
+    /**
+     * Проверяет, что цикл, начинающийся в заданной точке, повторяется без изменений
+     * и робот после него еще не проходит мимо цели.
+     */
+    private boolean repeatsCycle(double x, double y, double direction, double[] decisions, int period,
+                                 double cycleX, double cycleY, double clearance) {
+        double ahead = (m_targetPositionX - x) * cycleX + (m_targetPositionY - y) * cycleY;
+        if (ahead < 2 * (cycleX * cycleX + cycleY * cycleY)) {
+            return false;
         }
-        double newY = m_robotPositionY - velocity / angularVelocity * (Math.cos(m_robotDirection
-                + angularVelocity * duration) - Math.cos(m_robotDirection));
-        if (!Double.isFinite(newY)) {
-            newY = m_robotPositionY + velocity * duration * Math.sin(m_robotDirection);
+        for (int i = 0; i < period; i++) {
+            if (decide(x, y, direction) != decisions[i] || !hasClearance(x, y, direction, clearance)) {
+                return false;
+            }
+            double nextX = Kinematics.moveX(x, direction, maxVelocity, decisions[i], 10);
+            y = Kinematics.moveY(y, direction, maxVelocity, decisions[i], 10);
+            x = nextX;
+            direction = Kinematics.asNormalizedRadians(direction + decisions[i] * 10);
         }
-        m_robotPositionX = newX;
-        m_robotPositionY = newY;
-        double newDirection = asNormalizedRadians(m_robotDirection + angularVelocity * duration);
-        m_robotDirection = newDirection;
+        return true;
     }
 
     /**
-     * Нормализует угол в радианах, приводя его к диапазону от -pi до pi.
+     * Решение жадного управления в заданном положении.
      *
-     * @param angle угол для нормализации
-     * @return нормализованный угол
+     * @return Угловая скорость на такт или {@link Double#NaN}, если цель достигнута.
      */
-    private static double asNormalizedRadians(double angle) {
-        while (angle < 0) {
-            angle += 2 * Math.PI;
+    private double decide(double x, double y, double direction) {
+        if (Kinematics.distance(m_targetPositionX, m_targetPositionY, x, y) < 0.5) {
+            return Double.NaN;
         }
-        while (angle >= 2 * Math.PI) {
-            angle -= 2 * Math.PI;
+        return Kinematics.steer(x, y, direction, m_targetPositionX, m_targetPositionY,
+                maxAngularVelocity, maxVelocity / maxAngularVelocity);
+    }
+
+    /**
+     * Проверяет, что цель отстоит от радиуса прибытия и от окружностей разворота
+     * не меньше чем на заданную величину.
+     */
+    private boolean hasClearance(double x, double y, double direction, double clearance) {
+        double maxCurve = maxVelocity / maxAngularVelocity;
+        if (Kinematics.distance(m_targetPositionX, m_targetPositionY, x, y) < 0.5 + clearance) {
+            return false;
         }
-        return angle;
+        double offsetX = -maxCurve * Math.sin(direction);
+        double offsetY = maxCurve * Math.cos(direction);
+        double left = Kinematics.distance(m_targetPositionX, m_targetPositionY, x + offsetX, y + offsetY);
+        double right = Kinematics.distance(m_targetPositionX, m_targetPositionY, x - offsetX, y - offsetY);
+        return Math.abs(left - maxCurve) >= clearance && Math.abs(right - maxCurve) >= clearance;
+    }
+
+    /**
+     * Перемещение робота.
+     *
+     * @param velocity        Расстояние, которое проходит робот за такт.
+     * @param angularVelocity Число радиан, на которые робот может повернуться за такт.
+     * @param duration        Длительность перемещения.
+     */
+
+    private void moveRobot(double velocity, double angularVelocity, double duration) {
+        velocity = Kinematics.applyLimits(velocity, 0, maxVelocity);
+        angularVelocity = Kinematics.applyLimits(angularVelocity, -maxAngularVelocity, maxAngularVelocity);
+        double newX = Kinematics.moveX(m_robotPositionX, m_robotDirection, velocity, angularVelocity, duration);
+        double newY = Kinematics.moveY(m_robotPositionY, m_robotDirection, velocity, angularVelocity, duration);
+        m_robotPositionX = newX;
+        m_robotPositionY = newY;
+        double newDirection = Kinematics.asNormalizedRadians(m_robotDirection + angularVelocity * duration);
+        m_robotDirection = newDirection;
     }
 
     /**
@@ -154,17 +399,8 @@ public class Robot extends RobotBehavior {
      * @return `true` если недостижима, иначе `false`.
      */
     public boolean unachievable(double targetPositionX, double targetPositionY) {
-        double dx = targetPositionX - m_robotPositionX;
-        double dy = targetPositionY - m_robotPositionY;
-
-        double newDX = Math.cos(m_robotDirection) * dx + Math.sin(m_robotDirection) * dy;
-        double newDY = Math.cos(m_robotDirection) * dy - Math.sin(m_robotDirection) * dx;
-
-        double maxCurve = maxVelocity / maxAngularVelocity;
-        double dist1 = distance(newDX, newDY, 0, maxCurve);
-        double dist2 = distance(newDX, newDY + maxCurve, 0, 0);
-
-        return !(dist1 > maxCurve) || !(dist2 > maxCurve);
+        return Kinematics.unachievable(m_robotPositionX, m_robotPositionY, m_robotDirection,
+                targetPositionX, targetPositionY, maxVelocity / maxAngularVelocity);
     }
 
     public double getM_robotPositionX() {
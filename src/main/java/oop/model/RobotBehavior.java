@@ -1,16 +1,57 @@
 package oop.model;
 
+import oop.metrics.Metrics;
+
+import java.util.Arrays;
 import java.util.Observable;
+import java.util.Observer;
 
 /**
  * Этот абстрактный класс представляет поведение робота в модели.
+ * <p>
+ * Об изменениях положения модель сообщает через {@link #firePoseChanged()}:
+ * типизированным слушателям {@link PoseListener} передается переиспользуемый снимок
+ * {@link RobotPose}, а список слушателей копируется только при изменении, поэтому
+ * уведомление не создает мусора. Наблюдатели {@link Observer} по-прежнему получают
+ * сообщение {@link #ROBOT_MOVED}; модели из JAR-файлов, которые сами вызывают
+ * {@code notifyObservers(ROBOT_MOVED)}, заодно уведомляют и типизированных слушателей.
  */
 public abstract class RobotBehavior extends Observable {
+    /**
+     * Сообщение наблюдателям о перемещении робота.
+     */
+    public static final String ROBOT_MOVED = "Robot moved";
+    private static final PoseListener[] NO_LISTENERS = new PoseListener[0];
+
+    private volatile PoseListener[] m_poseListeners = NO_LISTENERS;
+    private volatile boolean m_hasObservers;
+    private final RobotPose m_publishedPose = new RobotPose();
+
     /**
      * Обрабатывает событие обновления модели.
      */
     public abstract void onModelUpdateEvent();
 
+    /**
+     * Продвигает модель на указанное число тактов.
+     * Модели, у которых движение между сменами режима известно в замкнутом виде,
+     * могут переопределить метод и пропускать однотипные такты за O(1).
+     * Реализация по умолчанию выполняет такты по одному.
+     * <p>
+     * Крупный переход принимается, только если в его конце решение управления
+     * не меняется даже при сдвиге положения на {@code clearance}. Поэтому больший
+     * запас означает меньше переходов, а {@link Double#POSITIVE_INFINITY} — выполнение
+     * строго по тактам.
+     *
+     * @param ticks     Число тактов.
+     * @param clearance Запас до границы смены решения управления.
+     */
+    public void fastForward(long ticks, double clearance) {
+        for (long i = 0; i < ticks; i++) {
+            onModelUpdateEvent();
+        }
+    }
+
     /**
      * Устанавливает целевую позицию робота.
      *
@@ -19,6 +60,132 @@ public abstract class RobotBehavior extends Observable {
      */
     public abstract void setTargetPosition(Integer x, Integer y);
 
+    /**
+     * Заполняет снимок текущим положением робота.
+     * Реализация по умолчанию читает поля через отдельные геттеры и не гарантирует,
+     * что все значения относятся к одному такту; модели, которые меняют положение
+     * в другом потоке, переопределяют метод и возвращают согласованный снимок.
+     *
+     * @param pose Снимок, в который записывается положение.
+     */
+    public void readPose(RobotPose pose) {
+        pose.set(getM_robotPositionX(), getM_robotPositionY(), getM_robotDirection(),
+                getM_targetPositionX(), getM_targetPositionY());
+    }
+
+    /**
+     * Проверяет, можно ли перенести робота через {@link #setPose(double, double, double)}.
+     * Реализация по умолчанию возвращает {@code false}; модели, которые поддерживают
+     * перенос, переопределяют оба метода.
+     *
+     * @return {@code true}, если модель поддерживает перенос.
+     */
+    public boolean supportsSetPose() {
+        return false;
+    }
+
+    /**
+     * Переносит робота в заданное положение, не меняя цель. Вызывается только
+     * для моделей, у которых {@link #supportsSetPose()} возвращает {@code true}.
+     *
+     * @param x         Позиция по оси X.
+     * @param y         Позиция по оси Y.
+     * @param direction Направление.
+     * @throws UnsupportedOperationException Если модель не поддерживает перенос.
+     */
+    public void setPose(double x, double y, double direction) {
+        throw new UnsupportedOperationException(getClass().getName() + " не поддерживает перенос робота");
+    }
+
+    /**
+     * Добавляет слушателя изменений положения.
+     *
+     * @param listener Слушатель.
+     */
+    public synchronized void addPoseListener(PoseListener listener) {
+        PoseListener[] listeners = Arrays.copyOf(m_poseListeners, m_poseListeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+        m_poseListeners = listeners;
+    }
+
+    /**
+     * Удаляет слушателя изменений положения.
+     *
+     * @param listener Слушатель.
+     */
+    public synchronized void removePoseListener(PoseListener listener) {
+        PoseListener[] listeners = m_poseListeners;
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                PoseListener[] copy = new PoseListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, copy, 0, i);
+                System.arraycopy(listeners, i + 1, copy, i, listeners.length - i - 1);
+                m_poseListeners = copy.length == 0 ? NO_LISTENERS : copy;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Уведомляет слушателей и наблюдателей о перемещении робота.
+     * Вызывается моделью в потоке тактов.
+     */
+    protected void firePoseChanged() {
+        long start = Metrics.start();
+        publishPose();
+        if (m_hasObservers) {
+            setChanged();
+            super.notifyObservers(ROBOT_MOVED);
+        }
+        Metrics.getInstance().getFanOutTime().recordSince(start);
+    }
+
+    /**
+     * Уведомляет наблюдателей; сообщение {@link #ROBOT_MOVED} также передается
+     * типизированным слушателям, чтобы модели, написанные под {@link Observable},
+     * работали с новыми окнами.
+     *
+     * @param arg Сообщение наблюдателям.
+     */
+    @Override
+    public void notifyObservers(Object arg) {
+        long start = Metrics.start();
+        super.notifyObservers(arg);
+        if (ROBOT_MOVED.equals(arg)) {
+            publishPose();
+        }
+        Metrics.getInstance().getFanOutTime().recordSince(start);
+    }
+
+    private void publishPose() {
+        PoseListener[] listeners = m_poseListeners;
+        if (listeners.length == 0) {
+            return;
+        }
+        RobotPose pose = m_publishedPose;
+        readPose(pose);
+        for (PoseListener listener : listeners) {
+            listener.onPoseChanged(this, pose);
+        }
+    }
+
+    @Override
+    public synchronized void addObserver(Observer o) {
+        super.addObserver(o);
+        m_hasObservers = true;
+    }
+
+    @Override
+    public synchronized void deleteObserver(Observer o) {
+        super.deleteObserver(o);
+        m_hasObservers = countObservers() > 0;
+    }
+
+    @Override
+    public synchronized void deleteObservers() {
+        super.deleteObservers();
+        m_hasObservers = false;
+    }
 
     /**
      * Возвращает текущую позицию робота по координате X.
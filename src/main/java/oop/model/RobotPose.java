@@ -0,0 +1,61 @@
+package oop.model;
+
+/**
+ * Снимок положения робота: координаты, направление и цель.
+ * Объект изменяемый и переиспользуется между тактами, поэтому слушатели,
+ * которым нужно сохранить положение, должны скопировать значения.
+ */
+public final class RobotPose {
+    private double m_robotPositionX;
+    private double m_robotPositionY;
+    private double m_robotDirection;
+    private int m_targetPositionX;
+    private int m_targetPositionY;
+
+    /**
+     * Заполняет снимок значениями.
+     *
+     * @param x         Позиция робота по оси X.
+     * @param y         Позиция робота по оси Y.
+     * @param direction Направление робота.
+     * @param targetX   Целевая позиция по оси X.
+     * @param targetY   Целевая позиция по оси Y.
+     */
+    public void set(double x, double y, double direction, int targetX, int targetY) {
+        m_robotPositionX = x;
+        m_robotPositionY = y;
+        m_robotDirection = direction;
+        m_targetPositionX = targetX;
+        m_targetPositionY = targetY;
+    }
+
+    /**
+     * Копирует значения другого снимка.
+     *
+     * @param other Исходный снимок.
+     */
+    public void copyFrom(RobotPose other) {
+        set(other.m_robotPositionX, other.m_robotPositionY, other.m_robotDirection,
+                other.m_targetPositionX, other.m_targetPositionY);
+    }
+
+    public double getRobotPositionX() {
+        return m_robotPositionX;
+    }
+
+    public double getRobotPositionY() {
+        return m_robotPositionY;
+    }
+
+    public double getRobotDirection() {
+        return m_robotDirection;
+    }
+
+    public int getTargetPositionX() {
+        return m_targetPositionX;
+    }
+
+    public int getTargetPositionY() {
+        return m_targetPositionY;
+    }
+}
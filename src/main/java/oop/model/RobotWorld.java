@@ -0,0 +1,499 @@
+package oop.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Мир из множества роботов, хранящий их состояние по столбцам
+ * (structure of arrays): координаты, направления и цели лежат в отдельных
+ * примитивных массивах, а такт модели обрабатывает всех роботов одним циклом.
+ * Кинематика совпадает с {@link Robot}.
+ * <p>
+ * Отдельный робот мира доступен как {@link RobotBehavior} через {@link #slot(int)},
+ * поэтому существующие окна могут работать с ним так же, как с {@link Robot}.
+ * <p>
+ * Если роботов не меньше порога параллелизма, такт делится на диапазоны индексов,
+ * которые обрабатываются в {@link ForkJoinPool}. Роботы в пределах такта друг от друга
+ * не зависят, поэтому результат побитово совпадает с однопоточным тактом.
+ * <p>
+ * У каждого робота есть счетчик версий (seqlock): запись делает его нечетным на время
+ * изменения и снова четным после, а {@link #readPose(int, RobotPose)} повторяет чтение,
+ * пока не увидит одну и ту же четную версию до и после. Читатели не блокируют такт
+ * и никогда не получают положение, собранное из двух разных тактов.
+ * <p>
+ * Изменения, которые пишут столбцы, — такт, добавление робота и смена цели —
+ * выполняются под монитором мира и друг другу не мешают. Массивы столбцов и версий
+ * публикуются одним неизменяемым набором {@link Columns}: при росте мира создается
+ * новый набор, и читатель берет все массивы из одного набора, поэтому не смешивает
+ * версии одного поколения массивов с положениями другого.
+ * <p>
+ * К миру можно подключить {@link SpatialGrid}: после каждого такта и при добавлении
+ * робота индекс обновляется, так что запросы соседей видят положения последнего такта.
+ */
+public class RobotWorld {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int DEFAULT_PARALLELISM_THRESHOLD = 4096;
+    private static final int MIN_CHUNK_SIZE = 1024;
+    private static final double maxCurve = Robot.maxVelocity / Robot.maxAngularVelocity;
+    private static final VarHandle SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private volatile Columns m_columns;
+    private RobotWorldSlot[] m_slots;
+    private SpatialGrid m_grid;
+    private volatile int m_size;
+    private volatile int m_parallelismThreshold = DEFAULT_PARALLELISM_THRESHOLD;
+    private volatile ForkJoinPool m_pool = ForkJoinPool.commonPool();
+
+    /**
+     * Конструктор по умолчанию.
+     */
+    public RobotWorld() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Создает мир с заранее выделенным местом под указанное число роботов.
+     *
+     * @param capacity Начальная вместимость.
+     */
+    public RobotWorld(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        m_columns = new Columns(new double[capacity], new double[capacity], new double[capacity],
+                new int[capacity], new int[capacity], new long[capacity]);
+        m_slots = new RobotWorldSlot[capacity];
+    }
+
+    /**
+     * Создает мир из готовых столбцов, например прочитанных из контрольной точки.
+     * Массивы не копируются и переходят в собственность мира.
+     *
+     * @param positionX Позиции по оси X.
+     * @param positionY Позиции по оси Y.
+     * @param direction Направления.
+     * @param targetX   Целевые позиции по оси X.
+     * @param targetY   Целевые позиции по оси Y.
+     * @param size      Число роботов; не больше длины массивов.
+     */
+    public RobotWorld(double[] positionX, double[] positionY, double[] direction, int[] targetX, int[] targetY,
+                      int size) {
+        int capacity = positionX.length;
+        if (capacity < 1 || positionY.length != capacity || direction.length != capacity
+                || targetX.length != capacity || targetY.length != capacity) {
+            throw new IllegalArgumentException("Columns must be non-empty and of equal length");
+        }
+        if (size < 0 || size > capacity) {
+            throw new IllegalArgumentException("Size " + size + " out of range");
+        }
+        m_columns = new Columns(positionX, positionY, direction, targetX, targetY, new long[capacity]);
+        m_slots = new RobotWorldSlot[capacity];
+        m_size = size;
+    }
+
+    /**
+     * Копирует столбцы состояния в переданные массивы длиной не меньше {@link #size()}.
+     * Вызывается между тактами, обычно в потоке тактов: копия отражает состояние
+     * после последнего такта и занимает время обычного копирования памяти.
+     *
+     * @param positionX Массив для позиций по оси X.
+     * @param positionY Массив для позиций по оси Y.
+     * @param direction Массив для направлений.
+     * @param targetX   Массив для целевых позиций по оси X.
+     * @param targetY   Массив для целевых позиций по оси Y.
+     */
+    public synchronized void copyColumns(double[] positionX, double[] positionY, double[] direction,
+                                         int[] targetX, int[] targetY) {
+        int size = m_size;
+        Columns columns = m_columns;
+        System.arraycopy(columns.m_positionX, 0, positionX, 0, size);
+        System.arraycopy(columns.m_positionY, 0, positionY, 0, size);
+        System.arraycopy(columns.m_direction, 0, direction, 0, size);
+        System.arraycopy(columns.m_targetX, 0, targetX, 0, size);
+        System.arraycopy(columns.m_targetY, 0, targetY, 0, size);
+    }
+
+    /**
+     * Добавляет робота в начальном положении {@link Robot}.
+     *
+     * @return Индекс добавленного робота.
+     */
+    public int add() {
+        return add(100, 100, 0, 150, 100);
+    }
+
+    /**
+     * Добавляет робота с заданным положением и целью.
+     *
+     * @param x         Позиция по оси X.
+     * @param y         Позиция по оси Y.
+     * @param direction Направление.
+     * @param targetX   Целевая позиция по оси X.
+     * @param targetY   Целевая позиция по оси Y.
+     * @return Индекс добавленного робота.
+     */
+    public synchronized int add(double x, double y, double direction, int targetX, int targetY) {
+        if (m_size == m_columns.m_positionX.length) {
+            grow();
+        }
+        int index = m_size;
+        Columns columns = m_columns;
+        columns.m_positionX[index] = x;
+        columns.m_positionY[index] = y;
+        columns.m_direction[index] = direction;
+        columns.m_targetX[index] = targetX;
+        columns.m_targetY[index] = targetY;
+        if (m_grid != null) {
+            m_grid.update(index, x, y);
+        }
+        m_size++;
+        return index;
+    }
+
+    /**
+     * Публикует новый набор столбцов вдвое большей вместимости. Вызывается под монитором,
+     * поэтому ни один писатель не меняет старые массивы во время копирования, и все версии
+     * в них четные.
+     */
+    private void grow() {
+        Columns columns = m_columns;
+        int capacity = columns.m_positionX.length * 2;
+        m_columns = new Columns(Arrays.copyOf(columns.m_positionX, capacity),
+                Arrays.copyOf(columns.m_positionY, capacity), Arrays.copyOf(columns.m_direction, capacity),
+                Arrays.copyOf(columns.m_targetX, capacity), Arrays.copyOf(columns.m_targetY, capacity),
+                Arrays.copyOf(columns.m_sequences, capacity));
+        m_slots = Arrays.copyOf(m_slots, capacity);
+    }
+
+    /**
+     * Возвращает количество роботов в мире.
+     *
+     * @return Количество роботов.
+     */
+    public int size() {
+        return m_size;
+    }
+
+    /**
+     * Устанавливает целевую позицию робота.
+     *
+     * @param index Индекс робота.
+     * @param x     Целевая позиция по оси X.
+     * @param y     Целевая позиция по оси Y.
+     */
+    public synchronized void setTargetPosition(int index, int x, int y) {
+        checkIndex(index);
+        Columns columns = m_columns;
+        long[] sequences = columns.m_sequences;
+        beginWrite(sequences, index);
+        columns.m_targetX[index] = x;
+        columns.m_targetY[index] = y;
+        endWrite(sequences, index);
+    }
+
+    /**
+     * Заполняет снимок согласованным положением робота, не блокируя такт.
+     *
+     * @param index Индекс робота.
+     * @param pose  Снимок, в который записывается положение.
+     */
+    public void readPose(int index, RobotPose pose) {
+        checkIndex(index);
+        Columns columns = m_columns;
+        long[] sequences = columns.m_sequences;
+        while (true) {
+            long sequence = (long) SEQUENCE.getAcquire(sequences, index);
+            if ((sequence & 1) == 0) {
+                double x = columns.m_positionX[index];
+                double y = columns.m_positionY[index];
+                double direction = columns.m_direction[index];
+                int targetX = columns.m_targetX[index];
+                int targetY = columns.m_targetY[index];
+                VarHandle.loadLoadFence();
+                if ((long) SEQUENCE.get(sequences, index) == sequence) {
+                    pose.set(x, y, direction, targetX, targetY);
+                    return;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Начинает запись робота: переводит его версию в нечетную,
+     * дождавшись окончания чужой записи.
+     */
+    private static void beginWrite(long[] sequences, int index) {
+        while (true) {
+            long sequence = (long) SEQUENCE.getVolatile(sequences, index);
+            if ((sequence & 1) == 0 && SEQUENCE.compareAndSet(sequences, index, sequence, sequence + 1)) {
+                VarHandle.storeStoreFence();
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Завершает запись робота: публикует изменения и возвращает версии четность.
+     */
+    private static void endWrite(long[] sequences, int index) {
+        SEQUENCE.setRelease(sequences, index, (long) SEQUENCE.get(sequences, index) + 1);
+    }
+
+    /**
+     * Подключает пространственный индекс и заполняет его текущими положениями роботов.
+     *
+     * @param grid Пустой индекс или {@code null}, чтобы отключить индекс.
+     */
+    public synchronized void setSpatialGrid(SpatialGrid grid) {
+        if (grid != null) {
+            Columns columns = m_columns;
+            for (int i = 0; i < m_size; i++) {
+                grid.update(i, columns.m_positionX[i], columns.m_positionY[i]);
+            }
+        }
+        m_grid = grid;
+    }
+
+    /**
+     * Возвращает подключенный пространственный индекс.
+     *
+     * @return Индекс или {@code null}, если он не подключен.
+     */
+    public SpatialGrid getSpatialGrid() {
+        return m_grid;
+    }
+
+    /**
+     * Устанавливает минимальное число роботов, начиная с которого такт выполняется параллельно.
+     *
+     * @param threshold Порог параллелизма; {@link Integer#MAX_VALUE} отключает параллельный такт.
+     */
+    public void setParallelismThreshold(int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be positive: " + threshold);
+        }
+        m_parallelismThreshold = threshold;
+    }
+
+    /**
+     * Возвращает порог параллелизма.
+     *
+     * @return Минимальное число роботов для параллельного такта.
+     */
+    public int getParallelismThreshold() {
+        return m_parallelismThreshold;
+    }
+
+    /**
+     * Устанавливает пул потоков для параллельного такта.
+     *
+     * @param pool Пул потоков.
+     */
+    public void setPool(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must not be null");
+        }
+        m_pool = pool;
+    }
+
+    /**
+     * Выполняет один такт модели для всех роботов, обновляет пространственный индекс
+     * и уведомляет наблюдателей тех выданных через {@link #slot(int)} роботов,
+     * которые за такт сдвинулись.
+     * Добавление робота ждет окончания такта.
+     */
+    public synchronized void tick() {
+        int size = m_size;
+        Columns columns = m_columns;
+        ForkJoinPool pool = m_pool;
+        if (size >= m_parallelismThreshold && pool.getParallelism() > 1) {
+            int chunkSize = Math.max(MIN_CHUNK_SIZE, size / (pool.getParallelism() * 4));
+            pool.invoke(new StepTask(columns, 0, size, chunkSize));
+        } else {
+            stepRange(columns, 0, size);
+        }
+        SpatialGrid grid = m_grid;
+        if (grid != null) {
+            double[] positionX = columns.m_positionX;
+            double[] positionY = columns.m_positionY;
+            for (int i = 0; i < size; i++) {
+                grid.update(i, positionX[i], positionY[i]);
+            }
+        }
+        RobotWorldSlot[] slots = m_slots;
+        boolean[] moved = columns.m_moved;
+        for (int i = 0; i < size; i++) {
+            if (moved[i]) {
+                moved[i] = false;
+                RobotWorldSlot slot = slots[i];
+                if (slot != null) {
+                    slot.notifyMoved();
+                }
+            }
+        }
+    }
+
+    /**
+     * Выполняет такт модели для роботов с индексами из полуинтервала [from, to)
+     * и отмечает сдвинувшихся роботов в {@link Columns#m_moved}.
+     * Вызывается под монитором мира или из задач такта, который его держит.
+     *
+     * @param columns Столбцы, на которых выполняется такт.
+     * @param from    Первый индекс.
+     * @param to      Индекс, следующий за последним.
+     */
+    private static void stepRange(Columns columns, int from, int to) {
+        double[] positionX = columns.m_positionX;
+        double[] positionY = columns.m_positionY;
+        double[] direction = columns.m_direction;
+        int[] targetX = columns.m_targetX;
+        int[] targetY = columns.m_targetY;
+        long[] sequences = columns.m_sequences;
+        boolean[] moved = columns.m_moved;
+        for (int i = from; i < to; i++) {
+            double x = positionX[i];
+            double y = positionY[i];
+            double dir = direction[i];
+            int tx = targetX[i];
+            int ty = targetY[i];
+            if (Kinematics.distance(tx, ty, x, y) < 0.5) {
+                continue;
+            }
+            beginWrite(sequences, i);
+            tx = targetX[i];
+            ty = targetY[i];
+            if (Kinematics.distance(tx, ty, x, y) >= 0.5) {
+                double angularVelocity = Kinematics.steer(x, y, dir, tx, ty, Robot.maxAngularVelocity, maxCurve);
+                positionX[i] = Kinematics.moveX(x, dir, Robot.maxVelocity, angularVelocity, 10);
+                positionY[i] = Kinematics.moveY(y, dir, Robot.maxVelocity, angularVelocity, 10);
+                direction[i] = Kinematics.asNormalizedRadians(dir + angularVelocity * 10);
+                moved[i] = true;
+            }
+            endWrite(sequences, i);
+        }
+    }
+
+    /**
+     * Выполняет такт модели для одного робота.
+     *
+     * @param index Индекс робота.
+     * @return `true`, если робот сдвинулся, иначе `false`.
+     */
+    synchronized boolean step(int index) {
+        checkIndex(index);
+        Columns columns = m_columns;
+        double oldX = columns.m_positionX[index];
+        double oldY = columns.m_positionY[index];
+        stepRange(columns, index, index + 1);
+        columns.m_moved[index] = false;
+        double x = columns.m_positionX[index];
+        double y = columns.m_positionY[index];
+        SpatialGrid grid = m_grid;
+        if (grid != null) {
+            grid.update(index, x, y);
+        }
+        return oldX != x || oldY != y;
+    }
+
+    /**
+     * Возвращает представление робота мира в виде {@link RobotBehavior}.
+     * Для одного индекса всегда возвращается один и тот же объект.
+     *
+     * @param index Индекс робота.
+     * @return Робот мира.
+     */
+    public synchronized RobotBehavior slot(int index) {
+        checkIndex(index);
+        RobotWorldSlot slot = m_slots[index];
+        if (slot == null) {
+            slot = new RobotWorldSlot(this, index);
+            m_slots[index] = slot;
+        }
+        return slot;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= m_size) {
+            throw new IndexOutOfBoundsException("Index: " + index + " out of range");
+        }
+    }
+
+    public double getRobotPositionX(int index) {
+        return m_columns.m_positionX[index];
+    }
+
+    public double getRobotPositionY(int index) {
+        return m_columns.m_positionY[index];
+    }
+
+    public double getRobotDirection(int index) {
+        return m_columns.m_direction[index];
+    }
+
+    public int getTargetPositionX(int index) {
+        return m_columns.m_targetX[index];
+    }
+
+    public int getTargetPositionY(int index) {
+        return m_columns.m_targetY[index];
+    }
+
+    /**
+     * Неизменяемый набор массивов одного поколения: столбцы состояния, версии роботов
+     * и отметки о перемещении за текущий такт. Отметки пишутся и сбрасываются только
+     * под монитором мира.
+     */
+    private static final class Columns {
+        private final double[] m_positionX;
+        private final double[] m_positionY;
+        private final double[] m_direction;
+        private final int[] m_targetX;
+        private final int[] m_targetY;
+        private final long[] m_sequences;
+        private final boolean[] m_moved;
+
+        Columns(double[] positionX, double[] positionY, double[] direction, int[] targetX, int[] targetY,
+                long[] sequences) {
+            m_positionX = positionX;
+            m_positionY = positionY;
+            m_direction = direction;
+            m_targetX = targetX;
+            m_targetY = targetY;
+            m_sequences = sequences;
+            m_moved = new boolean[sequences.length];
+        }
+    }
+
+    /**
+     * Задача, делящая диапазон роботов пополам, пока он не станет меньше порции.
+     */
+    private static final class StepTask extends RecursiveAction {
+        private final Columns m_columns;
+        private final int m_from;
+        private final int m_to;
+        private final int m_chunkSize;
+
+        StepTask(Columns columns, int from, int to, int chunkSize) {
+            m_columns = columns;
+            m_from = from;
+            m_to = to;
+            m_chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (m_to - m_from <= m_chunkSize) {
+                stepRange(m_columns, m_from, m_to);
+                return;
+            }
+            int middle = (m_from + m_to) >>> 1;
+            invokeAll(new StepTask(m_columns, m_from, middle, m_chunkSize),
+                    new StepTask(m_columns, middle, m_to, m_chunkSize));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package oop.model;
+
+/**
+ * Адаптер, представляющий одного робота {@link RobotWorld} в виде {@link RobotBehavior}.
+ * Такт адаптера двигает только своего робота; такт всего мира
+ * ({@link RobotWorld#tick()}) сам уведомляет наблюдателей адаптера, если робот сдвинулся.
+ */
+class RobotWorldSlot extends RobotBehavior {
+    private final RobotWorld m_world;
+    private final int m_index;
+
+    /**
+     * Конструктор адаптера.
+     *
+     * @param world Мир, которому принадлежит робот.
+     * @param index Индекс робота в мире.
+     */
+    RobotWorldSlot(RobotWorld world, int index) {
+        m_world = world;
+        m_index = index;
+    }
+
+    /**
+     * Обрабатывает событие обновления модели.
+     */
+    @Override
+    public void onModelUpdateEvent() {
+        if (m_world.step(m_index)) {
+            notifyMoved();
+        }
+    }
+
+    /**
+     * Уведомляет наблюдателей о перемещении робота.
+     */
+    void notifyMoved() {
+        firePoseChanged();
+    }
+
+    @Override
+    public void readPose(RobotPose pose) {
+        m_world.readPose(m_index, pose);
+    }
+
+    @Override
+    public void setTargetPosition(Integer x, Integer y) {
+        m_world.setTargetPosition(m_index, x, y);
+    }
+
+    @Override
+    public double getM_robotPositionX() {
+        return m_world.getRobotPositionX(m_index);
+    }
+
+    @Override
+    public double getM_robotPositionY() {
+        return m_world.getRobotPositionY(m_index);
+    }
+
+    @Override
+    public double getM_robotDirection() {
+        return m_world.getRobotDirection(m_index);
+    }
+
+    @Override
+    public int getM_targetPositionX() {
+        return m_world.getTargetPositionX(m_index);
+    }
+
+    @Override
+    public int getM_targetPositionY() {
+        return m_world.getTargetPositionY(m_index);
+    }
+}
@@ -0,0 +1,367 @@
+package oop.model;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Пространственный индекс роботов на равномерной сетке (spatial hash).
+ * <p>
+ * Плоскость делится на квадратные ячейки; ячейка хешируется в корзину,
+ * а роботы одной корзины связаны двусвязным списком на массивах индексов.
+ * Перемещение робота внутри ячейки обновляет только его координаты, переход в другую
+ * ячейку — перестановка в двух списках, поэтому обновление всех роботов за такт
+ * стоит O(n). Запросы по радиусу, поиск k ближайших и перебор пар-кандидатов
+ * на столкновение просматривают только соседние ячейки.
+ * <p>
+ * Индексы роботов совпадают с индексами {@link RobotWorld}. Класс не потокобезопасен:
+ * обновления и запросы должны выполняться в одном потоке, обычно в потоке тактов.
+ */
+public class SpatialGrid {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int NONE = -1;
+
+    private final double m_cellSize;
+    private int[] m_head;
+    private int m_mask;
+    private double[] m_positionX;
+    private double[] m_positionY;
+    private int[] m_cellX;
+    private int[] m_cellY;
+    private int[] m_bucket;
+    private int[] m_next;
+    private int[] m_prev;
+    private int m_count;
+    private double[] m_distances = new double[0];
+
+    /**
+     * Создает пустой индекс.
+     *
+     * @param cellSize Размер ячейки; для поиска столкновений он должен быть
+     *                 не меньше расстояния, на котором роботы считаются столкнувшимися.
+     */
+    public SpatialGrid(double cellSize) {
+        if (!(cellSize > 0) || Double.isInfinite(cellSize)) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        m_cellSize = cellSize;
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        m_positionX = new double[capacity];
+        m_positionY = new double[capacity];
+        m_cellX = new int[capacity];
+        m_cellY = new int[capacity];
+        m_bucket = new int[capacity];
+        m_next = new int[capacity];
+        m_prev = new int[capacity];
+        Arrays.fill(m_bucket, NONE);
+        m_head = new int[Integer.highestOneBit(capacity) * 2];
+        m_mask = m_head.length - 1;
+        Arrays.fill(m_head, NONE);
+    }
+
+    /**
+     * Возвращает размер ячейки.
+     *
+     * @return Размер ячейки.
+     */
+    public double getCellSize() {
+        return m_cellSize;
+    }
+
+    /**
+     * Возвращает число роботов в индексе.
+     *
+     * @return Число роботов.
+     */
+    public int size() {
+        return m_count;
+    }
+
+    /**
+     * Добавляет робота или обновляет его положение.
+     *
+     * @param index Индекс робота.
+     * @param x     Позиция по оси X.
+     * @param y     Позиция по оси Y.
+     */
+    public void update(int index, double x, double y) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("Index: " + index + " out of range");
+        }
+        if (index >= m_bucket.length) {
+            grow(index + 1);
+        }
+        int cellX = cell(x);
+        int cellY = cell(y);
+        m_positionX[index] = x;
+        m_positionY[index] = y;
+        if (m_bucket[index] != NONE) {
+            if (m_cellX[index] == cellX && m_cellY[index] == cellY) {
+                return;
+            }
+            unlink(index);
+        } else {
+            m_count++;
+        }
+        m_cellX[index] = cellX;
+        m_cellY[index] = cellY;
+        link(index, bucket(cellX, cellY));
+    }
+
+    /**
+     * Удаляет робота из индекса.
+     *
+     * @param index Индекс робота.
+     */
+    public void remove(int index) {
+        if (index >= 0 && index < m_bucket.length && m_bucket[index] != NONE) {
+            unlink(index);
+            m_count--;
+        }
+    }
+
+    /**
+     * Проверяет, есть ли робот в индексе.
+     *
+     * @param index Индекс робота.
+     * @return `true`, если робот добавлен, иначе `false`.
+     */
+    public boolean contains(int index) {
+        return index >= 0 && index < m_bucket.length && m_bucket[index] != NONE;
+    }
+
+    /**
+     * Передает обработчику индексы всех роботов, находящихся не дальше радиуса от точки.
+     *
+     * @param x        Координата X центра.
+     * @param y        Координата Y центра.
+     * @param radius   Радиус поиска.
+     * @param consumer Обработчик индексов.
+     */
+    public void forEachInRadius(double x, double y, double radius, IntConsumer consumer) {
+        double radiusSquared = radius * radius;
+        int fromX = cell(x - radius);
+        int toX = cell(x + radius);
+        int fromY = cell(y - radius);
+        int toY = cell(y + radius);
+        for (int cellX = fromX; cellX <= toX; cellX++) {
+            for (int cellY = fromY; cellY <= toY; cellY++) {
+                for (int i = m_head[bucket(cellX, cellY)]; i != NONE; i = m_next[i]) {
+                    if (m_cellX[i] == cellX && m_cellY[i] == cellY
+                            && distanceSquared(i, x, y) <= radiusSquared) {
+                        consumer.accept(i);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Находит не более k ближайших к точке роботов.
+     * Ячейки просматриваются расширяющимися кольцами, пока следующее кольцо
+     * не окажется дальше уже найденного k-го соседа.
+     *
+     * @param x      Координата X точки.
+     * @param y      Координата Y точки.
+     * @param k      Число соседей.
+     * @param result Массив длиной не меньше k, в который записываются индексы по возрастанию расстояния.
+     * @return Число найденных роботов.
+     */
+    public int nearest(double x, double y, int k, int[] result) {
+        if (k < 0 || k > result.length) {
+            throw new IllegalArgumentException("Invalid neighbour count: " + k);
+        }
+        if (k == 0 || m_count == 0) {
+            return 0;
+        }
+        if (m_distances.length < k) {
+            m_distances = new double[k];
+        }
+        double[] distances = m_distances;
+        int centerX = cell(x);
+        int centerY = cell(y);
+        int found = 0;
+        int visited = 0;
+        for (int ring = 0; visited < m_count; ring++) {
+            for (int cellX = centerX - ring; cellX <= centerX + ring; cellX++) {
+                boolean edge = cellX == centerX - ring || cellX == centerX + ring;
+                int step = edge || ring == 0 ? 1 : 2 * ring;
+                for (int cellY = centerY - ring; cellY <= centerY + ring; cellY += step) {
+                    for (int i = m_head[bucket(cellX, cellY)]; i != NONE; i = m_next[i]) {
+                        if (m_cellX[i] != cellX || m_cellY[i] != cellY) {
+                            continue;
+                        }
+                        visited++;
+                        double distance = distanceSquared(i, x, y);
+                        if (found < k) {
+                            siftUp(result, distances, found++, i, distance);
+                        } else if (distance < distances[0]) {
+                            siftDown(result, distances, found, i, distance);
+                        }
+                    }
+                }
+            }
+            double reach = ring * m_cellSize;
+            if (found == k && distances[0] <= reach * reach) {
+                break;
+            }
+        }
+        for (int last = found - 1; last > 0; last--) {
+            int index = result[0];
+            double distance = distances[0];
+            siftDown(result, distances, last, result[last], distances[last]);
+            result[last] = index;
+            distances[last] = distance;
+        }
+        return found;
+    }
+
+    /**
+     * Передает обработчику все пары роботов, находящихся ближе заданного расстояния
+     * (широкая фаза поиска столкновений). Каждая пара передается один раз,
+     * меньший индекс первым.
+     *
+     * @param distance Расстояние столкновения; не больше размера ячейки.
+     * @param consumer Обработчик пар.
+     */
+    public void forEachPair(double distance, PairConsumer consumer) {
+        if (distance > m_cellSize) {
+            throw new IllegalArgumentException("Distance " + distance + " exceeds cell size " + m_cellSize);
+        }
+        double distanceSquared = distance * distance;
+        for (int i = 0; i < m_bucket.length; i++) {
+            if (m_bucket[i] == NONE) {
+                continue;
+            }
+            double x = m_positionX[i];
+            double y = m_positionY[i];
+            for (int cellX = m_cellX[i] - 1; cellX <= m_cellX[i] + 1; cellX++) {
+                for (int cellY = m_cellY[i] - 1; cellY <= m_cellY[i] + 1; cellY++) {
+                    for (int j = m_head[bucket(cellX, cellY)]; j != NONE; j = m_next[j]) {
+                        if (j > i && m_cellX[j] == cellX && m_cellY[j] == cellY
+                                && distanceSquared(j, x, y) < distanceSquared) {
+                            consumer.accept(i, j);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private double distanceSquared(int index, double x, double y) {
+        double diffX = m_positionX[index] - x;
+        double diffY = m_positionY[index] - y;
+        return diffX * diffX + diffY * diffY;
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate / m_cellSize);
+    }
+
+    private int bucket(int cellX, int cellY) {
+        int hash = cellX * 0x9E3779B1 + cellY * 0x85EBCA6B;
+        return (hash ^ (hash >>> 16)) & m_mask;
+    }
+
+    private void link(int index, int bucket) {
+        int head = m_head[bucket];
+        m_bucket[index] = bucket;
+        m_prev[index] = NONE;
+        m_next[index] = head;
+        if (head != NONE) {
+            m_prev[head] = index;
+        }
+        m_head[bucket] = index;
+    }
+
+    private void unlink(int index) {
+        int prev = m_prev[index];
+        int next = m_next[index];
+        if (prev != NONE) {
+            m_next[prev] = next;
+        } else {
+            m_head[m_bucket[index]] = next;
+        }
+        if (next != NONE) {
+            m_prev[next] = prev;
+        }
+        m_bucket[index] = NONE;
+    }
+
+    /**
+     * Увеличивает массивы и перестраивает корзины, чтобы на корзину
+     * в среднем приходилось не больше половины робота.
+     */
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, m_bucket.length * 2);
+        double[] positionX = m_positionX;
+        double[] positionY = m_positionY;
+        int[] cellX = m_cellX;
+        int[] cellY = m_cellY;
+        int[] oldBucket = m_bucket;
+        allocate(capacity);
+        System.arraycopy(positionX, 0, m_positionX, 0, positionX.length);
+        System.arraycopy(positionY, 0, m_positionY, 0, positionY.length);
+        System.arraycopy(cellX, 0, m_cellX, 0, cellX.length);
+        System.arraycopy(cellY, 0, m_cellY, 0, cellY.length);
+        for (int i = 0; i < oldBucket.length; i++) {
+            if (oldBucket[i] != NONE) {
+                link(i, bucket(m_cellX[i], m_cellY[i]));
+            }
+        }
+    }
+
+    private static void siftUp(int[] heap, double[] distances, int position, int index, double distance) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (distances[parent] >= distance) {
+                break;
+            }
+            heap[position] = heap[parent];
+            distances[position] = distances[parent];
+            position = parent;
+        }
+        heap[position] = index;
+        distances[position] = distance;
+    }
+
+    /**
+     * Заменяет вершину кучи заданного размера новым элементом.
+     */
+    private static void siftDown(int[] heap, double[] distances, int size, int index, double distance) {
+        int position = 0;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && distances[child + 1] > distances[child]) {
+                child++;
+            }
+            if (distances[child] <= distance) {
+                break;
+            }
+            heap[position] = heap[child];
+            distances[position] = distances[child];
+            position = child;
+        }
+        heap[position] = index;
+        distances[position] = distance;
+    }
+
+    /**
+     * Обработчик пары роботов.
+     */
+    @FunctionalInterface
+    public interface PairConsumer {
+        /**
+         * Обрабатывает пару роботов.
+         *
+         * @param first  Меньший индекс.
+         * @param second Больший индекс.
+         */
+        void accept(int first, int second);
+    }
+}
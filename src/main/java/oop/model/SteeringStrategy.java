@@ -0,0 +1,22 @@
+package oop.model;
+
+/**
+ * Стратегия управления: выбирает угловую скорость робота на очередной такт.
+ */
+public interface SteeringStrategy {
+    /**
+     * Выбирает угловую скорость на такт.
+     *
+     * @param x                  Позиция робота по оси X.
+     * @param y                  Позиция робота по оси Y.
+     * @param direction          Направление робота.
+     * @param targetX            Целевая позиция по оси X.
+     * @param targetY            Целевая позиция по оси Y.
+     * @param velocity           Линейная скорость.
+     * @param maxAngularVelocity Максимальная угловая скорость.
+     * @param duration           Длительность такта.
+     * @return Угловая скорость, не превышающая по модулю максимальную.
+     */
+    double angularVelocity(double x, double y, double direction, double targetX, double targetY,
+                           double velocity, double maxAngularVelocity, double duration);
+}
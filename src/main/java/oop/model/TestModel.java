@@ -83,9 +83,7 @@ public class TestModel extends RobotBehavior {
             angularVelocity = 0;
         }
         moveRobot(velocity, angularVelocity, 10);
-        setChanged();
-        notifyObservers("Robot moved");
-        clearChanged();
+        firePoseChanged();
     }
 
     /**
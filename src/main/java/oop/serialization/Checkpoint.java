@@ -0,0 +1,208 @@
+package oop.serialization;
+
+import oop.model.RobotBehavior;
+import oop.model.RobotPose;
+import oop.model.RobotWorld;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Контрольная точка симуляции: номер такта и столбцы состояния всех роботов.
+ * <p>
+ * Файл читается и пишется через отображение в память. После заголовка
+ * (сигнатура {@code RCKP}, версия, такт, число роботов) столбцы лежат подряд:
+ * позиции X, позиции Y и направления как double, затем цели X и Y как int,
+ * все в порядке байт little-endian. Каждый столбец переносится одним массовым
+ * копированием, поэтому чтение миллиона роботов занимает миллисекунды.
+ * <p>
+ * Объект можно переиспользовать: {@link #capture(RobotWorld, long)} заполняет
+ * уже выделенные массивы и увеличивает их только при росте мира.
+ */
+public class Checkpoint {
+    static final int MAGIC = 0x52434B50;
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int BYTES_PER_ROBOT = 3 * Double.BYTES + 2 * Integer.BYTES;
+
+    private long m_tick;
+    private int m_size;
+    private double[] m_positionX = new double[0];
+    private double[] m_positionY = new double[0];
+    private double[] m_direction = new double[0];
+    private int[] m_targetX = new int[0];
+    private int[] m_targetY = new int[0];
+
+    /**
+     * Снимает состояние мира.
+     *
+     * @param world Мир роботов.
+     * @param tick  Номер такта.
+     */
+    public void capture(RobotWorld world, long tick) {
+        int size = world.size();
+        ensureCapacity(size);
+        world.copyColumns(m_positionX, m_positionY, m_direction, m_targetX, m_targetY);
+        m_size = size;
+        m_tick = tick;
+    }
+
+    /**
+     * Снимает состояние одного робота.
+     *
+     * @param robot Робот.
+     * @param tick  Номер такта.
+     */
+    public void capture(RobotBehavior robot, long tick) {
+        RobotPose pose = new RobotPose();
+        robot.readPose(pose);
+        ensureCapacity(1);
+        m_positionX[0] = pose.getRobotPositionX();
+        m_positionY[0] = pose.getRobotPositionY();
+        m_direction[0] = pose.getRobotDirection();
+        m_targetX[0] = pose.getTargetPositionX();
+        m_targetY[0] = pose.getTargetPositionY();
+        m_size = 1;
+        m_tick = tick;
+    }
+
+    /**
+     * Создает мир из контрольной точки. Столбцы передаются миру без копирования,
+     * после чего контрольная точка становится пустой.
+     *
+     * @return Мир роботов.
+     */
+    public RobotWorld toWorld() {
+        ensureCapacity(1);
+        RobotWorld world = new RobotWorld(m_positionX, m_positionY, m_direction, m_targetX, m_targetY, m_size);
+        m_positionX = new double[0];
+        m_positionY = new double[0];
+        m_direction = new double[0];
+        m_targetX = new int[0];
+        m_targetY = new int[0];
+        m_size = 0;
+        return world;
+    }
+
+    /**
+     * Восстанавливает положение и цель робота. Если модель не поддерживает перенос,
+     * восстанавливается только цель.
+     *
+     * @param index Индекс робота в контрольной точке.
+     * @param robot Робот.
+     */
+    public void restore(int index, RobotBehavior robot) {
+        if (index < 0 || index >= m_size) {
+            throw new IndexOutOfBoundsException("Index: " + index + " out of range");
+        }
+        if (robot.supportsSetPose()) {
+            robot.setPose(m_positionX[index], m_positionY[index], m_direction[index]);
+        }
+        robot.setTargetPosition(m_targetX[index], m_targetY[index]);
+    }
+
+    /**
+     * Записывает контрольную точку в файл.
+     *
+     * @param file Файл; существующий файл перезаписывается.
+     * @throws IOException Если файл не удалось записать.
+     */
+    public void write(File file) throws IOException {
+        long length = HEADER_SIZE + (long) m_size * BYTES_PER_ROBOT;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(m_tick).putInt(m_size);
+            buffer.position(HEADER_SIZE);
+            int size = m_size;
+            buffer.asDoubleBuffer().put(m_positionX, 0, size);
+            buffer.position(buffer.position() + size * Double.BYTES);
+            buffer.asDoubleBuffer().put(m_positionY, 0, size);
+            buffer.position(buffer.position() + size * Double.BYTES);
+            buffer.asDoubleBuffer().put(m_direction, 0, size);
+            buffer.position(buffer.position() + size * Double.BYTES);
+            buffer.asIntBuffer().put(m_targetX, 0, size);
+            buffer.position(buffer.position() + size * Integer.BYTES);
+            buffer.asIntBuffer().put(m_targetY, 0, size);
+            buffer.force();
+        }
+    }
+
+    /**
+     * Читает контрольную точку из файла.
+     *
+     * @param file Файл контрольной точки.
+     * @return Контрольная точка.
+     * @throws IOException Если файл не удалось прочитать или он поврежден.
+     */
+    public static Checkpoint read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_SIZE) {
+                throw new IOException("Контрольная точка обрывается: " + file.getPath());
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Не контрольная точка: " + file.getPath());
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Неподдерживаемая версия контрольной точки: " + version);
+            }
+            Checkpoint checkpoint = new Checkpoint();
+            checkpoint.m_tick = buffer.getLong();
+            int size = buffer.getInt();
+            if (size < 0 || length < HEADER_SIZE + (long) size * BYTES_PER_ROBOT) {
+                throw new IOException("Контрольная точка обрывается: " + file.getPath());
+            }
+            checkpoint.ensureCapacity(size);
+            checkpoint.m_size = size;
+            buffer.position(HEADER_SIZE);
+            buffer.asDoubleBuffer().get(checkpoint.m_positionX, 0, size);
+            buffer.position(buffer.position() + size * Double.BYTES);
+            buffer.asDoubleBuffer().get(checkpoint.m_positionY, 0, size);
+            buffer.position(buffer.position() + size * Double.BYTES);
+            buffer.asDoubleBuffer().get(checkpoint.m_direction, 0, size);
+            buffer.position(buffer.position() + size * Double.BYTES);
+            buffer.asIntBuffer().get(checkpoint.m_targetX, 0, size);
+            buffer.position(buffer.position() + size * Integer.BYTES);
+            buffer.asIntBuffer().get(checkpoint.m_targetY, 0, size);
+            return checkpoint;
+        }
+    }
+
+    /**
+     * Возвращает номер такта.
+     *
+     * @return Номер такта.
+     */
+    public long getTick() {
+        return m_tick;
+    }
+
+    /**
+     * Возвращает число роботов.
+     *
+     * @return Число роботов.
+     */
+    public int size() {
+        return m_size;
+    }
+
+    private void ensureCapacity(int size) {
+        if (m_positionX.length >= size) {
+            return;
+        }
+        m_positionX = new double[size];
+        m_positionY = new double[size];
+        m_direction = new double[size];
+        m_targetX = new int[size];
+        m_targetY = new int[size];
+    }
+}
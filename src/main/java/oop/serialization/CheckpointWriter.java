@@ -0,0 +1,132 @@
+package oop.serialization;
+
+import oop.log.Logger;
+import oop.model.RobotWorld;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Периодическая запись контрольных точек в фоновом потоке.
+ * <p>
+ * В потоке тактов {@link #onTick(RobotWorld, long)} только копирует столбцы мира
+ * в переиспользуемую {@link Checkpoint}; запись в файл выполняется отдельным потоком,
+ * так что такт задерживается лишь на копирование памяти. Файл сначала пишется рядом
+ * во временный и затем атомарно переименовывается, поэтому на диске всегда лежит
+ * целая контрольная точка. Если предыдущая запись еще идет, очередная точка пропускается.
+ * <p>
+ * Передача точки на запись и {@link #close()} выполняются под одним монитором, поэтому
+ * такт, пришедший во время закрытия, либо успевает отдать точку до остановки потока
+ * записи, либо видит остановку и ничего не делает.
+ */
+public class CheckpointWriter implements Closeable {
+    private final File m_file;
+    private final File m_tempFile;
+    private final long m_intervalTicks;
+    private final Checkpoint m_checkpoint = new Checkpoint();
+    private final AtomicBoolean m_writing = new AtomicBoolean();
+    private final AtomicLong m_written = new AtomicLong();
+    private final AtomicLong m_skipped = new AtomicLong();
+    private final ExecutorService m_executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "checkpoint writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object m_lock = new Object();
+    private long m_lastTick = Long.MIN_VALUE;
+
+    /**
+     * Создает фоновую запись контрольных точек.
+     *
+     * @param file          Файл контрольной точки.
+     * @param intervalTicks Интервал между контрольными точками в тактах.
+     */
+    public CheckpointWriter(File file, long intervalTicks) {
+        if (intervalTicks < 1) {
+            throw new IllegalArgumentException("Интервал должен быть положительным: " + intervalTicks);
+        }
+        m_file = file;
+        m_tempFile = new File(file.getPath() + ".tmp");
+        m_intervalTicks = intervalTicks;
+    }
+
+    /**
+     * Вызывается в потоке тактов после такта мира; если интервал истек,
+     * снимает контрольную точку и отдает ее на запись. После {@link #close()} ничего не делает.
+     *
+     * @param world Мир роботов.
+     * @param tick  Номер такта.
+     */
+    public void onTick(RobotWorld world, long tick) {
+        if (m_lastTick != Long.MIN_VALUE && tick - m_lastTick < m_intervalTicks) {
+            return;
+        }
+        m_lastTick = tick;
+        if (!m_writing.compareAndSet(false, true)) {
+            m_skipped.incrementAndGet();
+            return;
+        }
+        synchronized (m_lock) {
+            if (m_executor.isShutdown()) {
+                m_writing.set(false);
+                return;
+            }
+            m_checkpoint.capture(world, tick);
+            m_executor.execute(this::writeCheckpoint);
+        }
+    }
+
+    private void writeCheckpoint() {
+        try {
+            m_checkpoint.write(m_tempFile);
+            Files.move(m_tempFile.toPath(), m_file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            m_written.incrementAndGet();
+        } catch (IOException e) {
+            Logger.error("Не удалось записать контрольную точку: {}", e.getMessage());
+        } finally {
+            m_writing.set(false);
+        }
+    }
+
+    /**
+     * Возвращает число записанных контрольных точек.
+     *
+     * @return Число записанных точек.
+     */
+    public long getWritten() {
+        return m_written.get();
+    }
+
+    /**
+     * Возвращает число точек, пропущенных из-за незавершенной предыдущей записи.
+     *
+     * @return Число пропущенных точек.
+     */
+    public long getSkipped() {
+        return m_skipped.get();
+    }
+
+    /**
+     * Дожидается окончания начатой записи и останавливает фоновый поток.
+     */
+    @Override
+    public void close() {
+        synchronized (m_lock) {
+            m_executor.shutdown();
+        }
+        try {
+            m_executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package oop.serialization;
+
+import oop.model.RobotPose;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Прочитанная запись сеанса ({@link ReplayRecorder}): начальное положение,
+ * команды установки цели с номерами тактов и, если запись была завершена,
+ * число тактов и конечное положение.
+ */
+public class Replay {
+    private final RobotPose m_initialPose;
+    private final RobotPose m_finalPose;
+    private final long m_endTick;
+    private final long[] m_ticks;
+    private final int[] m_targetX;
+    private final int[] m_targetY;
+
+    private Replay(RobotPose initialPose, RobotPose finalPose, long endTick,
+                   long[] ticks, int[] targetX, int[] targetY) {
+        m_initialPose = initialPose;
+        m_finalPose = finalPose;
+        m_endTick = endTick;
+        m_ticks = ticks;
+        m_targetX = targetX;
+        m_targetY = targetY;
+    }
+
+    /**
+     * Читает запись из файла.
+     *
+     * @param file Файл записи.
+     * @return Запись.
+     * @throws IOException Если файл не удалось прочитать или он поврежден.
+     */
+    public static Replay read(File file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.getInt() != ReplayRecorder.MAGIC) {
+                throw new IOException("Не запись сеанса: " + file.getPath());
+            }
+            byte version = buffer.get();
+            if (version != ReplayRecorder.VERSION) {
+                throw new IOException("Неподдерживаемая версия записи: " + version);
+            }
+            RobotPose initialPose = readPose(buffer);
+            int count = 0;
+            long[] ticks = new long[64];
+            int[] targetX = new int[64];
+            int[] targetY = new int[64];
+            long tick = 0;
+            int lastX = initialPose.getTargetPositionX();
+            int lastY = initialPose.getTargetPositionY();
+            while (buffer.hasRemaining()) {
+                long header = readVarLong(buffer);
+                tick += header >>> 1;
+                if ((header & 1) != 0) {
+                    RobotPose finalPose = readPose(buffer);
+                    return new Replay(initialPose, finalPose, tick, Arrays.copyOf(ticks, count),
+                            Arrays.copyOf(targetX, count), Arrays.copyOf(targetY, count));
+                }
+                lastX += (int) unzigzag(readVarLong(buffer));
+                lastY += (int) unzigzag(readVarLong(buffer));
+                if (count == ticks.length) {
+                    ticks = Arrays.copyOf(ticks, count * 2);
+                    targetX = Arrays.copyOf(targetX, count * 2);
+                    targetY = Arrays.copyOf(targetY, count * 2);
+                }
+                ticks[count] = tick;
+                targetX[count] = lastX;
+                targetY[count] = lastY;
+                count++;
+            }
+            return new Replay(initialPose, null, tick, Arrays.copyOf(ticks, count),
+                    Arrays.copyOf(targetX, count), Arrays.copyOf(targetY, count));
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Запись сеанса обрывается: " + file.getPath(), e);
+        }
+    }
+
+    public RobotPose getInitialPose() {
+        return m_initialPose;
+    }
+
+    /**
+     * Возвращает конечное положение.
+     *
+     * @return Конечное положение или {@code null}, если запись не была завершена.
+     */
+    public RobotPose getFinalPose() {
+        return m_finalPose;
+    }
+
+    /**
+     * Возвращает число тактов записи; для незавершенной записи — номер такта последней команды.
+     *
+     * @return Число тактов.
+     */
+    public long getEndTick() {
+        return m_endTick;
+    }
+
+    /**
+     * Возвращает число команд.
+     *
+     * @return Число команд.
+     */
+    public int size() {
+        return m_ticks.length;
+    }
+
+    public long getTick(int index) {
+        return m_ticks[index];
+    }
+
+    public int getTargetX(int index) {
+        return m_targetX[index];
+    }
+
+    public int getTargetY(int index) {
+        return m_targetY[index];
+    }
+
+    private static RobotPose readPose(ByteBuffer buffer) throws IOException {
+        double x = buffer.getDouble();
+        double y = buffer.getDouble();
+        double direction = buffer.getDouble();
+        int targetX = (int) unzigzag(readVarLong(buffer));
+        int targetY = (int) unzigzag(readVarLong(buffer));
+        RobotPose pose = new RobotPose();
+        pose.set(x, y, direction, targetX, targetY);
+        return pose;
+    }
+
+    private static long readVarLong(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Некорректное число в записи сеанса");
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,164 @@
+package oop.serialization;
+
+import oop.model.RobotPose;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Запись сеанса для детерминированного воспроизведения.
+ * <p>
+ * Формат файла:
+ * <ul>
+ *     <li>заголовок: сигнатура {@code RPLY}, версия формата, начальное положение робота
+ *     (три double) и цель (два числа zigzag varint);</li>
+ *     <li>команды: varint {@code (Δтакт << 1)}, затем смещения цели по X и Y
+ *     относительно предыдущей цели в zigzag varint;</li>
+ *     <li>окончание: varint {@code (Δтакт << 1) | 1}, затем конечное положение и цель
+ *     в том же виде, что и в заголовке.</li>
+ * </ul>
+ * Номер такта — число тактов модели с начала записи до применения команды.
+ * Типичная команда занимает 3–6 байт, поэтому час работы с кликом в секунду
+ * укладывается в десятки килобайт. Данные копятся в буфере и дописываются
+ * в файл через {@link FileChannel}, когда буфер заполняется.
+ */
+public class ReplayRecorder implements Closeable {
+    static final int MAGIC = 0x52504C59;
+    static final byte VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_RECORD_SIZE = 64;
+
+    private final FileChannel m_channel;
+    private final ByteBuffer m_buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private long m_lastTick;
+    private int m_lastTargetX;
+    private int m_lastTargetY;
+    private long m_bytesWritten;
+    private boolean m_closed;
+
+    /**
+     * Создает файл записи и пишет заголовок.
+     *
+     * @param file        Файл записи; существующий файл перезаписывается.
+     * @param initialPose Положение и цель робота в начале записи.
+     * @throws IOException Если файл не удалось создать.
+     */
+    public ReplayRecorder(File file, RobotPose initialPose) throws IOException {
+        m_channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        m_buffer.putInt(MAGIC);
+        m_buffer.put(VERSION);
+        writePose(initialPose);
+        m_lastTargetX = initialPose.getTargetPositionX();
+        m_lastTargetY = initialPose.getTargetPositionY();
+    }
+
+    /**
+     * Записывает команду установки цели.
+     *
+     * @param tick    Номер такта с начала записи; не меньше номера предыдущей команды.
+     * @param targetX Целевая позиция по оси X.
+     * @param targetY Целевая позиция по оси Y.
+     * @throws IOException Если данные не удалось записать.
+     */
+    public void record(long tick, int targetX, int targetY) throws IOException {
+        ensureSpace();
+        writeVarLong(nextTickDelta(tick) << 1);
+        writeVarLong(zigzag((long) targetX - m_lastTargetX));
+        writeVarLong(zigzag((long) targetY - m_lastTargetY));
+        m_lastTargetX = targetX;
+        m_lastTargetY = targetY;
+    }
+
+    /**
+     * Записывает окончание сеанса с конечным положением и закрывает файл.
+     *
+     * @param tick      Число тактов с начала записи.
+     * @param finalPose Положение и цель робота в конце записи.
+     * @throws IOException Если данные не удалось записать.
+     */
+    public void finish(long tick, RobotPose finalPose) throws IOException {
+        ensureSpace();
+        writeVarLong((nextTickDelta(tick) << 1) | 1);
+        writePose(finalPose);
+        close();
+    }
+
+    /**
+     * Возвращает число байт, записанных в файл, включая еще не сброшенный буфер.
+     *
+     * @return Размер записи в байтах.
+     */
+    public long getBytesWritten() {
+        return m_bytesWritten + m_buffer.position();
+    }
+
+    /**
+     * Сбрасывает буфер и закрывает файл. Запись без окончания можно воспроизвести,
+     * но конечное положение в ней не проверяется.
+     *
+     * @throws IOException Если данные не удалось записать.
+     */
+    @Override
+    public void close() throws IOException {
+        if (m_closed) {
+            return;
+        }
+        m_closed = true;
+        try {
+            flush();
+        } finally {
+            m_channel.close();
+        }
+    }
+
+    private long nextTickDelta(long tick) {
+        if (tick < m_lastTick) {
+            throw new IllegalArgumentException("Такт " + tick + " раньше предыдущего " + m_lastTick);
+        }
+        long delta = tick - m_lastTick;
+        m_lastTick = tick;
+        return delta;
+    }
+
+    private void writePose(RobotPose pose) {
+        m_buffer.putDouble(pose.getRobotPositionX());
+        m_buffer.putDouble(pose.getRobotPositionY());
+        m_buffer.putDouble(pose.getRobotDirection());
+        writeVarLong(zigzag(pose.getTargetPositionX()));
+        writeVarLong(zigzag(pose.getTargetPositionY()));
+    }
+
+    private void ensureSpace() throws IOException {
+        if (m_closed) {
+            throw new IOException("Запись сеанса закрыта");
+        }
+        if (m_buffer.remaining() < MAX_RECORD_SIZE) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        m_buffer.flip();
+        while (m_buffer.hasRemaining()) {
+            m_bytesWritten += m_channel.write(m_buffer);
+        }
+        m_buffer.clear();
+    }
+
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            m_buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        m_buffer.put((byte) value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
@@ -18,8 +18,17 @@ public class StateIO {
      * Конструктор класса
      */
     public StateIO() {
-        this.confPath = new File(System.getProperty("user.home") +
-                File.separator + "States.conf");
+        this(new File(System.getProperty("user.home") +
+                File.separator + "States.conf"));
+    }
+
+    /**
+     * Конструктор класса с указанным файлом конфигурации
+     *
+     * @param confPath Путь к файлу конфигурации
+     */
+    public StateIO(File confPath) {
+        this.confPath = confPath;
     }
 
     /**